@@ -8,7 +8,14 @@ import com.projectkorra.projectkorra.attribute.Attribute;
 import com.projectkorra.projectkorra.attribute.markers.DayNightFactor;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
 import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
+import net.doodcraft.cozmyc.vinemanipulation.display.DisplayPool;
+import net.doodcraft.cozmyc.vinemanipulation.display.MutationQueue;
+import net.doodcraft.cozmyc.vinemanipulation.display.LightCache;
 import net.doodcraft.cozmyc.vinemanipulation.display.animation.FabrikChainAnimation;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.RopeAnimation;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.RopeModel;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.VerletRopeAnimation;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.util.FabrikBatchSolver;
 import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedDisplay;
 import org.bukkit.Bukkit;
 import org.bukkit.Color;
@@ -20,6 +27,7 @@ import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.util.RayTraceResult;
@@ -59,10 +67,22 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
     private double desiredSpacing;
     private int fabrikIterations;
     private double fabrikTolerance;
+    private boolean adaptiveIterations;
+    private boolean batchSolve;
+    private int simulationNodes;
+    private double positionUpdateThreshold;
+    private double angleUpdateThreshold;
+    private int lightUpdateThreshold;
+    private double segmentHysteresis;
+    private int maxSegmentAddsPerTick;
+    private int maxSegmentRemovalsPerTick;
+    private RopeModel ropeModel;
+    private int verletSubsteps;
+    private int verletConstraintIterations;
     private String segmentMaterial;
     private boolean dynamicMaterials;
 
-    private FabrikChainAnimation vineAnimation;
+    private RopeAnimation vineAnimation;
 
     private final Vector tempVector = new Vector();
 
@@ -139,6 +159,18 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
         this.desiredSpacing = config.getDouble(path + "Vine.Performance.DesiredSpacing");
         this.fabrikIterations = config.getInt(path + "Vine.Performance.FabrikIterations");
         this.fabrikTolerance = config.getDouble(path + "Vine.Performance.FabrikTolerance");
+        this.adaptiveIterations = config.getBoolean(path + "Vine.Performance.AdaptiveIterations");
+        this.batchSolve = config.getBoolean(path + "Vine.Performance.BatchSolve");
+        this.simulationNodes = config.getInt(path + "Vine.Performance.SimulationNodes");
+        this.positionUpdateThreshold = config.getDouble(path + "Vine.Performance.UpdateThreshold.Position");
+        this.angleUpdateThreshold = config.getDouble(path + "Vine.Performance.UpdateThreshold.Angle");
+        this.lightUpdateThreshold = config.getInt(path + "Vine.Performance.UpdateThreshold.Light");
+        this.segmentHysteresis = config.getDouble(path + "Vine.Performance.SegmentCount.Hysteresis");
+        this.maxSegmentAddsPerTick = config.getInt(path + "Vine.Performance.SegmentCount.MaxAddsPerTick");
+        this.maxSegmentRemovalsPerTick = config.getInt(path + "Vine.Performance.SegmentCount.MaxRemovalsPerTick");
+        this.ropeModel = getRopeModel(config.getString(path + "Vine.RopeModel"));
+        this.verletSubsteps = config.getInt(path + "Vine.Verlet.Substeps");
+        this.verletConstraintIterations = config.getInt(path + "Vine.Verlet.ConstraintIterations");
 
         this.extensionSpeed = config.getDouble(path + "Vine.ExtensionSpeed");
         this.gravityStrength = config.getDouble(path + "Vine.GravitySag");
@@ -436,29 +468,7 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
             this.currentState = State.TENSIONING;
 
             if (this.vineAnimation == null) {
-                Location initialTargetLoc = targetEntity.getLocation().add(0, targetEntity.getHeight() * 0.8, 0);
-                BlockData vineData = getSegmentBlockData(this.originLoc);
-
-                this.vineAnimation = new FabrikChainAnimation(
-                        this,
-                        getDisplayManager(),
-                        this.originLoc,
-                        initialTargetLoc,
-                        vineData,
-                        this.displayScale,
-                        this.maxSegments,
-                        this.minSegments,
-                        this.desiredSpacing,
-                        this.maxVineLength,
-                        this.extensionSpeed,
-                        this.fabrikIterations,
-                        this.fabrikTolerance,
-                        this.gravityStrength,
-                        this.maxAngleConstraintDegrees,
-                        this.stiffness,
-                        1.0
-                );
-                this.vineAnimation.start();
+                startVineAnimation(targetEntity, 1.0);
             }
 
             float pitch = ThreadLocalRandom.current().nextFloat(0.5f, 0.8f);
@@ -469,10 +479,39 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
         this.currentState = State.EXTENDING;
 
         if (this.vineAnimation == null) {
-            Location initialTargetLoc = targetEntity.getLocation().add(0, targetEntity.getHeight() * 0.8, 0);
-            BlockData vineData = getSegmentBlockData(this.originLoc);
+            startVineAnimation(targetEntity, 0.5);
+        }
+
+        float pitch = ThreadLocalRandom.current().nextFloat(0.5f, 0.8f);
+        source.getWorld().playSound(source.getLocation(), Sound.ENTITY_FISHING_BOBBER_THROW, 1.0f, pitch);
+    }
 
-            this.vineAnimation = new FabrikChainAnimation(
+    private void startVineAnimation(Entity targetEntity, double slackFactor) {
+        Location initialTargetLoc = targetEntity.getLocation().add(0, targetEntity.getHeight() * 0.8, 0);
+        BlockData vineData = getSegmentBlockData(this.originLoc);
+
+        if (this.ropeModel == RopeModel.VERLET) {
+            VerletRopeAnimation verletAnimation = new VerletRopeAnimation(
+                    this,
+                    getDisplayManager(),
+                    this.originLoc,
+                    initialTargetLoc,
+                    vineData,
+                    this.displayScale,
+                    this.maxSegments,
+                    this.minSegments,
+                    this.desiredSpacing,
+                    this.maxVineLength,
+                    this.extensionSpeed,
+                    this.gravityStrength,
+                    this.stiffness,
+                    slackFactor
+            );
+            verletAnimation.setSubsteps(this.verletSubsteps);
+            verletAnimation.setConstraintIterations(this.verletConstraintIterations);
+            this.vineAnimation = verletAnimation;
+        } else {
+            FabrikChainAnimation fabrikAnimation = new FabrikChainAnimation(
                     this,
                     getDisplayManager(),
                     this.originLoc,
@@ -489,13 +528,17 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
                     this.gravityStrength,
                     this.maxAngleConstraintDegrees,
                     this.stiffness,
-                    0.5
+                    slackFactor
             );
-            this.vineAnimation.start();
+            fabrikAnimation.setAdaptiveIterations(this.adaptiveIterations);
+            fabrikAnimation.setBatchSolve(this.batchSolve);
+            fabrikAnimation.setSimulationNodes(this.simulationNodes);
+            fabrikAnimation.setRopeModel(this.ropeModel);
+            this.vineAnimation = fabrikAnimation;
         }
-
-        float pitch = ThreadLocalRandom.current().nextFloat(0.5f, 0.8f);
-        source.getWorld().playSound(source.getLocation(), Sound.ENTITY_FISHING_BOBBER_THROW, 1.0f, pitch);
+        this.vineAnimation.setUpdateThresholds(this.positionUpdateThreshold, this.angleUpdateThreshold, this.lightUpdateThreshold);
+        this.vineAnimation.setSegmentCountLimits(this.segmentHysteresis, this.maxSegmentAddsPerTick, this.maxSegmentRemovalsPerTick);
+        this.vineAnimation.start();
     }
 
     private void handleTensioningState() {
@@ -696,13 +739,18 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
     public void remove() {
         if (this.vineAnimation != null) {
             for (ManagedDisplay display : vineAnimation.getManagedDisplays()) {
-                playPlantbendingParticles(display.getBukkitEntity().getLocation(), 1, 0.5, 0.5, 0.5);
-                display.getBukkitEntity().getWorld().spawnParticle(Particle.SPORE_BLOSSOM_AIR, display.getBukkitEntity().getLocation(), 0, 0.5, 0.0, 0.5, 0.0, null, true);
+                Display entity = display.getBukkitEntity();
+                if (entity == null) {
+                    continue;
+                }
+                Location displayLocation = entity.getLocation();
+                playPlantbendingParticles(displayLocation, 1, 0.5, 0.5, 0.5);
+                entity.getWorld().spawnParticle(Particle.SPORE_BLOSSOM_AIR, displayLocation, 0, 0.5, 0.0, 0.5, 0.0, null, true);
                 Color darkGreen = Color.fromRGB(10, 10, 10);
                 Particle.DustOptions plantDust = new Particle.DustOptions(darkGreen, 0.25f);
                 if (Math.random() < 0.35) {
-                    playPlantbendingParticles(display.getBukkitEntity().getLocation(), 1, 0.0, 0.0, 0.0);
-                    //display.getBukkitEntity().getWorld().spawnParticle(Particle.DUST, display.getBukkitEntity().getLocation(), 0, 0.0, 0.0, 0.0, 0.0, plantDust, true);
+                    playPlantbendingParticles(displayLocation, 1, 0.0, 0.0, 0.0);
+                    //entity.getWorld().spawnParticle(Particle.DUST, displayLocation, 0, 0.0, 0.0, 0.0, 0.0, plantDust, true);
                 }
             }
             player.getWorld().playSound(originLoc, Sound.BLOCK_HANGING_ROOTS_BREAK, 2.0f, 1.75f);
@@ -729,6 +777,18 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
         return Material.OAK_LEAVES.createBlockData();
     }
 
+    private RopeModel getRopeModel(String name) {
+        if (name != null) {
+            try {
+                return RopeModel.valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                ProjectKorra.log.warning("VineManipulation: Invalid RopeModel configured: " + name + ". Defaulting to FABRIK.");
+            }
+        }
+
+        return RopeModel.FABRIK;
+    }
+
     public boolean isSelected() {
         return currentState == State.SELECTED;
     }
@@ -756,7 +816,10 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
     public ArrayList<Location> getLocations() {
         ArrayList<Location> locations = new ArrayList<>();
         for (ManagedDisplay display : vineAnimation.getManagedDisplays()) {
-            locations.add(display.getBukkitEntity().getLocation());
+            Display entity = display.getBukkitEntity();
+            if (entity != null) {
+                locations.add(entity.getLocation());
+            }
         }
         return locations;
     }
@@ -797,12 +860,30 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
         config.addDefault(path + "Vine.Segment.Material", "CAVE_VINES");
         config.addDefault(path + "Vine.Segment.DynamicMaterials", false);
         config.addDefault(path + "Vine.Length", 26.0);
+        config.addDefault(path + "Vine.RopeModel", "FABRIK");
+        config.addDefault(path + "Vine.Verlet.Substeps", VerletRopeAnimation.DEFAULT_SUBSTEPS);
+        config.addDefault(path + "Vine.Verlet.ConstraintIterations", VerletRopeAnimation.DEFAULT_CONSTRAINT_ITERATIONS);
 
         config.addDefault(path + "Vine.Performance.MaxSegments", 104);
         config.addDefault(path + "Vine.Performance.MinSegments", 3);
         config.addDefault(path + "Vine.Performance.DesiredSpacing", 0.25);
         config.addDefault(path + "Vine.Performance.FabrikIterations", 15);
         config.addDefault(path + "Vine.Performance.FabrikTolerance", 0.01);
+        config.addDefault(path + "Vine.Performance.AdaptiveIterations", true);
+        config.addDefault(path + "Vine.Performance.BatchSolve", true);
+        config.addDefault(path + "Vine.Performance.SimulationNodes", 24);
+        config.addDefault(path + "Vine.Performance.UpdateThreshold.Position", RopeAnimation.DEFAULT_POSITION_THRESHOLD);
+        config.addDefault(path + "Vine.Performance.UpdateThreshold.Angle", RopeAnimation.DEFAULT_ANGLE_THRESHOLD);
+        config.addDefault(path + "Vine.Performance.UpdateThreshold.Light", RopeAnimation.DEFAULT_LIGHT_THRESHOLD);
+        config.addDefault(path + "Vine.Performance.SegmentCount.Hysteresis", RopeAnimation.DEFAULT_SEGMENT_HYSTERESIS);
+        config.addDefault(path + "Vine.Performance.SegmentCount.MaxAddsPerTick", RopeAnimation.DEFAULT_MAX_SEGMENT_ADDS);
+        config.addDefault(path + "Vine.Performance.SegmentCount.MaxRemovalsPerTick", RopeAnimation.DEFAULT_MAX_SEGMENT_REMOVALS);
+        config.addDefault(path + "Vine.Performance.AsyncSimulation", true);
+        config.addDefault(path + "Vine.Performance.VectorizedSolver", true);
+        config.addDefault(path + "Vine.Performance.LightRefreshTicks", LightCache.DEFAULT_REFRESH_TICKS);
+        config.addDefault(path + "Vine.Performance.DisplayPool.MaxPerWorld", DisplayPool.DEFAULT_MAX_PER_WORLD);
+        config.addDefault(path + "Vine.Performance.DisplayPool.IdleTicks", DisplayPool.DEFAULT_IDLE_TICKS);
+        config.addDefault(path + "Vine.Performance.MutationBudgetMicros", MutationQueue.DEFAULT_BUDGET_MICROS);
         config.addDefault(path + "Vine.GravitySag", 0.75);
         config.addDefault(path + "Vine.Segment.MaxAngleConstraint", 135);
         config.addDefault(path + "Vine.DisplayScale", 0.15);
@@ -815,6 +896,15 @@ public class VineManipulation extends PlantAbility implements AddonAbility {
 
         ConfigManager.defaultConfig.save();
 
+        FabrikBatchSolver batchSolver = DisplayManager.getInstance().getBatchSolver();
+        batchSolver.setAsync(config.getBoolean(path + "Vine.Performance.AsyncSimulation"));
+        batchSolver.setVectorized(config.getBoolean(path + "Vine.Performance.VectorizedSolver"));
+        DisplayManager.getInstance().getLightCache().setRefreshTicks(config.getInt(path + "Vine.Performance.LightRefreshTicks"));
+        DisplayPool displayPool = DisplayManager.getInstance().getDisplayPool();
+        displayPool.setMaxPerWorld(config.getInt(path + "Vine.Performance.DisplayPool.MaxPerWorld"));
+        displayPool.setIdleTicks(config.getInt(path + "Vine.Performance.DisplayPool.IdleTicks"));
+        DisplayManager.getInstance().getMutationQueue().setBudgetMicros(config.getInt(path + "Vine.Performance.MutationBudgetMicros"));
+
         FileConfiguration lang = ConfigManager.languageConfig.get();
 
         lang.addDefault("Abilities.Water.VineManipulation.Description", "PlantBenders can launch a fast-growing vine from a plant source to tether entities or create climbable ropes. " +
@@ -0,0 +1,98 @@
+package net.doodcraft.cozmyc.vinemanipulation.display;
+
+import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedBlockDisplay;
+import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedDisplay;
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records display changes on any thread, to be applied on the main thread. The ManagedDisplay
+ * setters have to run on the main thread, so code computing vine visuals elsewhere records its
+ * changes here and hands the buffer to {@link DisplayManager#submit}, which applies every
+ * submitted buffer in order, each command in the order it was recorded, at the start of the next
+ * tick. Values are copied when recorded, so the caller may keep reusing its own objects.
+ * <p>
+ * A buffer belongs to one thread at a time. Submitting takes its commands and leaves it empty,
+ * ready to record the next batch.
+ */
+public class DisplayCommandBuffer {
+
+    private List<Runnable> commands;
+
+    public DisplayCommandBuffer() {
+        this(16);
+    }
+
+    /**
+     * @param expectedCommands How many commands a batch usually holds, to size the buffer.
+     */
+    public DisplayCommandBuffer(int expectedCommands) {
+        this.commands = new ArrayList<>(Math.max(1, expectedCommands));
+    }
+
+    public void teleport(ManagedDisplay display, Location location) {
+        Location target = location.clone();
+        commands.add(() -> display.teleport(target));
+    }
+
+    public void setTeleportDuration(ManagedDisplay display, int ticks) {
+        commands.add(() -> display.setTeleportDuration(ticks));
+    }
+
+    public void setTransformation(ManagedDisplay display, Transformation transformation) {
+        Transformation copy = new Transformation(transformation.getTranslation(), transformation.getLeftRotation(),
+                transformation.getScale(), transformation.getRightRotation());
+        commands.add(() -> display.setTransformation(copy));
+    }
+
+    public void setBrightness(ManagedDisplay display, Display.Brightness brightness) {
+        commands.add(() -> display.setBrightness(brightness));
+    }
+
+    public void setBlockData(ManagedBlockDisplay display, BlockData blockData) {
+        BlockData copy = blockData.clone();
+        commands.add(() -> display.setBlockData(copy));
+    }
+
+    /**
+     * Records a batch of changes for one display. The consumer runs on the main thread when the
+     * buffer is applied, so it must only use values that are safe to read there.
+     */
+    public void update(ManagedDisplay display, Consumer<ManagedDisplay.Update> changes) {
+        commands.add(() -> {
+            ManagedDisplay.Update update = display.beginUpdate();
+            changes.accept(update);
+            update.apply();
+        });
+    }
+
+    /**
+     * Records any other main thread change, run in order with the rest of the buffer.
+     */
+    public void run(Runnable command) {
+        commands.add(command);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    /**
+     * Takes the recorded commands, leaving the buffer empty.
+     */
+    List<Runnable> take() {
+        List<Runnable> taken = commands;
+        commands = new ArrayList<>(Math.max(16, taken.size()));
+        return taken;
+    }
+}
@@ -3,6 +3,7 @@ package net.doodcraft.cozmyc.vinemanipulation.display;
 import com.google.common.collect.Sets;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.Ability;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.util.FabrikBatchSolver;
 import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedBlockDisplay;
 import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedDisplay;
 import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedItemDisplay;
@@ -18,12 +19,20 @@ import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.joml.Quaternionf;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 
 public class DisplayManager {
@@ -33,13 +42,32 @@ public class DisplayManager {
     private final Plugin plugin;
     private final Map<UUID, ManagedDisplay> managedDisplays = new ConcurrentHashMap<>();
     private final Map<Ability, Set<UUID>> abilityOwnership = new ConcurrentHashMap<>();
+    private final FabrikBatchSolver batchSolver = new FabrikBatchSolver(ProjectKorra.log);
+    private final LightCache lightCache = new LightCache();
+    private final DisplayPool displayPool = new DisplayPool();
+    private final MutationQueue mutationQueue = new MutationQueue();
+    private final Queue<List<Runnable>> submittedCommands = new ConcurrentLinkedQueue<>();
+    private final DisplaySpec defaultSpec = new DisplaySpec();
+    private final BukkitTask tickTask;
 
     private DisplayManager(Plugin plugin) {
         this.plugin = plugin;
         Bukkit.getPluginManager().registerEvents(new DisplayManagerListener(this), plugin);
+        this.tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
         ProjectKorra.log.info("DisplayManager initialized.");
     }
 
+    /**
+     * Runs once per server tick on the main thread.
+     */
+    private void tick() {
+        lightCache.tick();
+        displayPool.tick();
+        applySubmittedCommands();
+        mutationQueue.drain();
+        batchSolver.solveAll();
+    }
+
     /**
      * Initializes the DisplayManager singleton instance.
      * Should be called during ProjectKorra's onEnable.
@@ -57,6 +85,12 @@ public class DisplayManager {
      */
     public static void shutdown() {
         if (instance != null) {
+            instance.tickTask.cancel();
+            instance.batchSolver.shutdown();
+            instance.submittedCommands.clear();
+            instance.mutationQueue.drainAll();
+            instance.lightCache.clear();
+            instance.displayPool.clear();
             instance.removeAllDisplays();
             instance = null;
             ProjectKorra.log.info("DisplayManager shut down.");
@@ -76,7 +110,73 @@ public class DisplayManager {
     }
 
     /**
-     * Creates and registers a managed BlockDisplay.
+     * Gets the shared solver that batches every registered FabrikChain into one pass per tick.
+     * @return The batch solver.
+     */
+    public FabrikBatchSolver getBatchSolver() {
+        return batchSolver;
+    }
+
+    /**
+     * Gets the light cache shared by every display this manager updates.
+     * @return The light cache.
+     */
+    public LightCache getLightCache() {
+        return lightCache;
+    }
+
+    /**
+     * Gets the pool that parked BlockDisplays are reused from.
+     * @return The display pool.
+     */
+    public DisplayPool getDisplayPool() {
+        return displayPool;
+    }
+
+    /**
+     * Gets the queue of entity mutations run on the main thread each tick, within a time budget.
+     * @return The mutation queue.
+     */
+    public MutationQueue getMutationQueue() {
+        return mutationQueue;
+    }
+
+    /**
+     * Queues an entity mutation to run on the main thread during one of the next ticks.
+     * Can be called from any thread.
+     * @param mutation The change to make.
+     */
+    public void runOnMainThread(Runnable mutation) {
+        mutationQueue.submit(mutation);
+    }
+
+    /**
+     * Hands a command buffer's recorded changes over to be applied at the start of the next tick,
+     * after everything submitted before them. The buffer is left empty for reuse.
+     * Can be called from any thread.
+     * @param buffer The recorded changes.
+     */
+    public void submit(DisplayCommandBuffer buffer) {
+        if (buffer.isEmpty()) return;
+        submittedCommands.offer(buffer.take());
+    }
+
+    private void applySubmittedCommands() {
+        List<Runnable> commands;
+        while ((commands = submittedCommands.poll()) != null) {
+            for (Runnable command : commands) {
+                try {
+                    command.run();
+                } catch (Exception e) {
+                    ProjectKorra.log.log(Level.WARNING, "Failed to apply display command", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates and registers a managed BlockDisplay, reusing a parked one from the pool when the
+     * world has one.
      * Must be called from the main server thread (for now.)
      * @param owner The ability instance creating this display.
      * @param location The initial location to spawn the display.
@@ -84,16 +184,87 @@ public class DisplayManager {
      * @return The ManagedBlockDisplay wrapper, or null if spawning failed.
      */
     public ManagedBlockDisplay createBlockDisplay(Ability owner, Location location, BlockData blockData) {
+        return createBlockDisplay(owner, location, blockData, defaultSpec);
+    }
+
+    /**
+     * Creates and registers a managed BlockDisplay that is already in its initial state when
+     * players first see it, reusing a parked one from the pool when the world has one.
+     * Must be called from the main server thread (for now.)
+     * @param owner The ability instance creating this display.
+     * @param location The initial location to spawn the display.
+     * @param blockData The BlockData the display should show.
+     * @param spec The display's initial transformation, brightness, interpolation and view range.
+     * @return The ManagedBlockDisplay wrapper, or null if spawning failed.
+     */
+    public ManagedBlockDisplay createBlockDisplay(Ability owner, Location location, BlockData blockData, DisplaySpec spec) {
+        verifyMainThread();
+        BlockDisplay entity = spawnBlockDisplay(owner, location, null, blockData, spec);
+        if (entity == null) {
+            return null;
+        }
+
+        ManagedBlockDisplay wrapper = new ManagedBlockDisplay(entity, owner, this);
+        registerDisplay(wrapper, owner);
+        return wrapper;
+    }
+
+    /**
+     * Creates and registers several managed BlockDisplays at once, with one ownership lookup for
+     * the whole batch. Pooled displays are reused first. Each display spawns at its own location
+     * and right rotation, so it shows up already in place; everything else comes from the spec.
+     * Must be called from the main server thread.
+     * @param owner The ability instance creating these displays.
+     * @param locations The initial location of each display.
+     * @param rightRotations The initial right rotation of each display, null entries keep the spec's.
+     * @param blockData The BlockData the displays should show.
+     * @param spec The displays' shared scale, brightness, interpolation and view range.
+     * @return The created wrappers, fewer than requested if spawning failed partway.
+     */
+    public List<ManagedBlockDisplay> createBlockDisplays(Ability owner, List<Location> locations, List<Quaternionf> rightRotations,
+                                                         BlockData blockData, DisplaySpec spec) {
         verifyMainThread();
+        int count = locations.size();
+        List<ManagedBlockDisplay> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BlockDisplay entity = spawnBlockDisplay(owner, locations.get(i), rightRotations.get(i), blockData, spec);
+            if (entity == null) {
+                break;
+            }
+
+            ManagedBlockDisplay wrapper = new ManagedBlockDisplay(entity, owner, this);
+            managedDisplays.put(wrapper.getEntityId(), wrapper);
+            created.add(wrapper);
+        }
+
+        if (!created.isEmpty()) {
+            Set<UUID> owned = abilityOwnership.computeIfAbsent(owner, k -> Sets.newConcurrentHashSet());
+            for (ManagedBlockDisplay wrapper : created) {
+                owned.add(wrapper.getEntityId());
+            }
+            ProjectKorra.log.finest("Registered " + created.size() + " displays for ability " + owner);
+        }
+        return created;
+    }
+
+    /**
+     * Takes a BlockDisplay from the pool, or spawns one, already set up from the spec.
+     * @param rightRotation The display's own right rotation, null to keep the spec's.
+     * @return The entity, or null if spawning failed.
+     */
+    private BlockDisplay spawnBlockDisplay(Ability owner, Location location, Quaternionf rightRotation, BlockData blockData, DisplaySpec spec) {
         try {
-            BlockDisplay entity = location.getWorld().spawn(location, BlockDisplay.class, (display) -> {
+            BlockDisplay entity = displayPool.take(location, rightRotation, spec);
+            if (entity != null) {
+                entity.setBlock(blockData);
+                return entity;
+            }
+
+            return location.getWorld().spawn(location, BlockDisplay.class, (display) -> {
                 display.setBlock(blockData);
                 display.setPersistent(false);
+                spec.applyTo(display, rightRotation);
             });
-
-            ManagedBlockDisplay wrapper = new ManagedBlockDisplay(entity.getUniqueId(), owner, this);
-            registerDisplay(wrapper, owner);
-            return wrapper;
         } catch (Exception e) {
             ProjectKorra.log.log(Level.SEVERE, "Failed to spawn BlockDisplay for ability: " + owner.getName(), e);
             return null;
@@ -116,7 +287,7 @@ public class DisplayManager {
                 display.setPersistent(false);
             });
 
-            ManagedItemDisplay wrapper = new ManagedItemDisplay(entity.getUniqueId(), owner, this);
+            ManagedItemDisplay wrapper = new ManagedItemDisplay(entity, owner, this);
             registerDisplay(wrapper, owner);
             return wrapper;
         } catch (Exception e) {
@@ -144,7 +315,7 @@ public class DisplayManager {
                 display.setAlignment(TextDisplay.TextAlignment.CENTER);
             });
 
-            ManagedTextDisplay wrapper = new ManagedTextDisplay(entity.getUniqueId(), owner, this);
+            ManagedTextDisplay wrapper = new ManagedTextDisplay(entity, owner, this);
             registerDisplay(wrapper, owner);
             return wrapper;
         } catch (Exception e) {
@@ -154,34 +325,66 @@ public class DisplayManager {
     }
 
     /**
-     * Removes a specific managed display.
-     * Can be called asynchronously, removal happens on the main thread.
+     * Removes a specific managed display. Does nothing if the wrapper was already removed, so a
+     * stale wrapper can't touch a pooled entity that has since been handed to someone else.
+     * Can be called asynchronously, removal is queued for the main thread.
      * @param display The ManagedDisplay wrapper to remove.
      */
     public void removeDisplay(ManagedDisplay display) {
         if (display == null) return;
-        removeDisplay(display.getEntityId());
+        // by identity, a pooled entity keeps its UUID when a new wrapper takes it over
+        if (managedDisplays.remove(display.getEntityId(), display)) {
+            UUID entityId = display.getEntityId();
+            abilityOwnership.computeIfPresent(display.getOwner(), (key, ownedSet) -> {
+                ownedSet.remove(entityId);
+                return ownedSet.isEmpty() ? null : ownedSet;
+            });
+            despawnEntity(display);
+        }
     }
 
     /**
-     * Removes a managed display by its entity UUID.
-     * Can be called asynchronously, removal happens on the main thread.
+     * Removes whichever managed display is registered under an entity UUID right now.
+     * Can be called asynchronously, removal is queued for the main thread.
      * @param entityId The UUID of the Bukkit Display entity.
      */
     public void removeDisplay(UUID entityId) {
-        ManagedDisplay wrapper = managedDisplays.remove(entityId);
+        ManagedDisplay wrapper = managedDisplays.get(entityId);
         if (wrapper != null) {
-            Ability owner = wrapper.getOwner();
-            abilityOwnership.computeIfPresent(owner, (key, ownedSet) -> {
-                ownedSet.remove(entityId);
-                return ownedSet.isEmpty() ? null : ownedSet;
-            });
-            despawnEntity(entityId);
+            removeDisplay(wrapper);
         } else {
             despawnEntity(entityId);
         }
     }
 
+    /**
+     * Removes several managed displays at once, updating ownership once per owner.
+     * Can be called asynchronously, removal is queued for the main thread.
+     * @param displays The ManagedDisplay wrappers to remove.
+     */
+    public void removeDisplays(Collection<? extends ManagedDisplay> displays) {
+        if (displays == null || displays.isEmpty()) return;
+
+        List<ManagedDisplay> removed = new ArrayList<>(displays.size());
+        Map<Ability, List<UUID>> removedByOwner = new HashMap<>();
+        for (ManagedDisplay display : displays) {
+            // by identity, see removeDisplay(ManagedDisplay); wrappers removed before are skipped
+            if (display != null && managedDisplays.remove(display.getEntityId(), display)) {
+                removedByOwner.computeIfAbsent(display.getOwner(), k -> new ArrayList<>()).add(display.getEntityId());
+                removed.add(display);
+            }
+        }
+
+        for (Map.Entry<Ability, List<UUID>> entry : removedByOwner.entrySet()) {
+            abilityOwnership.computeIfPresent(entry.getKey(), (key, ownedSet) -> {
+                entry.getValue().forEach(ownedSet::remove);
+                return ownedSet.isEmpty() ? null : ownedSet;
+            });
+        }
+
+        despawnEntities(removed, Collections.emptyList());
+    }
+
     /**
      * Removes all displays owned by a specific ability instance.
      * Typically called by the DisplayManagerListener on AbilityRemoveEvent.
@@ -191,10 +394,17 @@ public class DisplayManager {
         Set<UUID> ownedEntityIds = abilityOwnership.remove(abilityInstanceUUID);
         if (ownedEntityIds != null) {
             ProjectKorra.log.fine("Removing " + ownedEntityIds.size() + " displays for ability instance: " + abilityInstanceUUID);
+            List<ManagedDisplay> wrappers = new ArrayList<>(ownedEntityIds.size());
+            List<UUID> unwrapped = new ArrayList<>();
             for (UUID entityId : ownedEntityIds) {
-                managedDisplays.remove(entityId);
-                despawnEntity(entityId);
+                ManagedDisplay wrapper = managedDisplays.get(entityId);
+                if (wrapper == null) {
+                    unwrapped.add(entityId);
+                } else if (wrapper.getOwner() == abilityInstanceUUID && managedDisplays.remove(entityId, wrapper)) {
+                    wrappers.add(wrapper);
+                }
             }
+            despawnEntities(wrappers, unwrapped);
         }
     }
 
@@ -203,11 +413,32 @@ public class DisplayManager {
      */
     void removeAllDisplays() {
         ProjectKorra.log.info("Removing all managed displays (" + managedDisplays.size() + ")");
-        Set<UUID> allEntityIds = Sets.newHashSet(managedDisplays.keySet());
+        List<ManagedDisplay> allDisplays = new ArrayList<>(managedDisplays.values());
         managedDisplays.clear();
         abilityOwnership.clear();
-        for (UUID entityId : allEntityIds) {
-            despawnEntity(entityId);
+        for (ManagedDisplay display : allDisplays) {
+            Display entity = display.getBukkitEntity();
+            display.invalidate();
+            if (entity != null) {
+                entity.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the cached entity handles of managed displays whose chunk unloaded. Displays aren't
+     * persistent, so their entities are gone for good.
+     * Typically called by the DisplayManagerListener on EntitiesUnloadEvent.
+     * @param entities The entities being unloaded.
+     */
+    void handleEntitiesUnload(List<Entity> entities) {
+        for (Entity entity : entities) {
+            if (entity instanceof Display) {
+                ManagedDisplay wrapper = managedDisplays.get(entity.getUniqueId());
+                if (wrapper != null) {
+                    wrapper.invalidate();
+                }
+            }
         }
     }
 
@@ -219,26 +450,85 @@ public class DisplayManager {
 
     private void despawnEntity(UUID entityId) {
         if (Bukkit.isPrimaryThread()) {
-            performDespawn(entityId);
+            hide(entityId);
+        }
+        mutationQueue.submit(() -> performDespawn(entityId));
+    }
+
+    /**
+     * Queues a whole batch of despawns as one mutation, which works through it until the tick's
+     * budget runs out and queues the rest again for the next tick. On the main thread every
+     * display is hidden right away, so only the removals themselves wait.
+     */
+    private void despawnEntities(List<ManagedDisplay> displays, List<UUID> entityIds) {
+        if (displays.isEmpty() && entityIds.isEmpty()) {
+            return;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            for (ManagedDisplay display : displays) {
+                display.setViewRange(0);
+            }
+            for (UUID entityId : entityIds) {
+                hide(entityId);
+            }
+        }
+        mutationQueue.submit(new DespawnBatch(displays, entityIds));
+    }
+
+    private void despawnEntity(ManagedDisplay display) {
+        if (Bukkit.isPrimaryThread()) {
+            // gone for players now, even if the removal or parking waits a few ticks for budget
+            display.setViewRange(0);
+        }
+        mutationQueue.submit(() -> performDespawn(display));
+    }
+
+    private void hide(UUID entityId) {
+        Entity entity = Bukkit.getEntity(entityId);
+        if (isOrphanedDisplay(entity)) {
+            ((Display) entity).setViewRange(0);
+        }
+    }
+
+    /**
+     * Despawns a display, or parks it in the pool if it is a BlockDisplay and there's room.
+     * The wrapper lets go of the entity either way, so it can't touch a display that has been
+     * handed to someone else.
+     */
+    private void performDespawn(ManagedDisplay display) {
+        verifyMainThread();
+        Display entity = display.getBukkitEntity();
+        display.invalidate();
+        if (entity == null) {
+            return;
+        }
+
+        if (entity instanceof BlockDisplay && displayPool.park((BlockDisplay) entity)) {
+            ProjectKorra.log.finest("Parked display entity: " + display.getEntityId());
         } else {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    performDespawn(entityId);
-                }
-            }.runTask(plugin);
+            entity.remove();
+            ProjectKorra.log.finest("Despawned display entity: " + display.getEntityId());
         }
     }
 
     private void performDespawn(UUID entityId) {
         verifyMainThread();
         Entity entity = Bukkit.getEntity(entityId);
-        if (entity instanceof Display && entity.isValid()) {
+        if (isOrphanedDisplay(entity)) {
             entity.remove();
             ProjectKorra.log.finest("Despawned display entity: " + entityId);
         }
     }
 
+    /**
+     * Checks whether an entity found only by its UUID, with no wrapper left, may be despawned.
+     * BlockDisplays are pooled and keep their UUID when reused, so without a wrapper there's no
+     * telling whether one is parked or already animating for another owner; they're left alone.
+     */
+    private static boolean isOrphanedDisplay(Entity entity) {
+        return entity instanceof Display && !(entity instanceof BlockDisplay) && entity.isValid();
+    }
+
     /**
      * Helper to get the underlying Bukkit entity safely.
      * Checks if the entity exists, is valid, and is of the expected type.
@@ -265,4 +555,37 @@ public class DisplayManager {
             throw new IllegalStateException("This operation must be performed on the main server thread.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Despawns a batch of displays from a single queue entry, resuming where it left off each
+     * time it runs. At least one display is despawned per run, so the batch always makes progress.
+     */
+    private final class DespawnBatch implements Runnable {
+
+        private final List<ManagedDisplay> displays;
+        private final List<UUID> entityIds;
+        private int next;
+
+        private DespawnBatch(List<ManagedDisplay> displays, List<UUID> entityIds) {
+            this.displays = displays;
+            this.entityIds = entityIds;
+        }
+
+        @Override
+        public void run() {
+            int total = displays.size() + entityIds.size();
+            do {
+                int index = next++;
+                if (index < displays.size()) {
+                    performDespawn(displays.get(index));
+                } else {
+                    performDespawn(entityIds.get(index - displays.size()));
+                }
+            } while (next < total && mutationQueue.hasTimeLeft());
+
+            if (next < total) {
+                mutationQueue.submit(this);
+            }
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package net.doodcraft.cozmyc.vinemanipulation.display;
 
 import com.projectkorra.projectkorra.event.AbilityEndEvent;
+import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 public class DisplayManagerListener implements Listener {
 
@@ -18,10 +24,40 @@ public class DisplayManagerListener implements Listener {
         displayManager.removeDisplaysForAbility(event.getAbility());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidateLight(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidateLight(event.getBlock());
+    }
+
+    @EventHandler
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        displayManager.handleEntitiesUnload(event.getEntities());
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        displayManager.getLightCache().remove(event.getWorld());
+        displayManager.getDisplayPool().remove(event.getWorld());
+    }
+
     @EventHandler
     public void onPluginDisable(PluginDisableEvent event) {
         if (event.getPlugin().getName().equals("ProjectKorra")) {
             DisplayManager.shutdown();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Invalidates the cached light around a changed block once the change has gone through. The
+     * event fires before the light engine updates, so anything sampled in between would be cached
+     * stale; the deferred invalidation drops that too.
+     */
+    private void invalidateLight(Block block) {
+        displayManager.runOnMainThread(() -> displayManager.getLightCache().invalidate(block));
+    }
+}
@@ -0,0 +1,165 @@
+package net.doodcraft.cozmyc.vinemanipulation.display;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.BlockDisplay;
+import org.joml.Quaternionf;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps released BlockDisplays parked and hidden in their world, so the DisplayManager can hand
+ * them out again instead of spawning new entities. Spawning is one of the most expensive things
+ * to do on the main thread, and a vine fight can spawn and remove hundreds of segments within a
+ * few ticks. Each world keeps a limited number of parked displays, and displays left idle too
+ * long are despawned. Main thread only.
+ */
+public class DisplayPool {
+
+    public static final int DEFAULT_MAX_PER_WORLD = 256;
+    public static final int DEFAULT_IDLE_TICKS = 600;
+
+    private final Map<UUID, ArrayDeque<Parked>> pools = new HashMap<>();
+    private int maxPerWorld = DEFAULT_MAX_PER_WORLD;
+    private int idleTicks = DEFAULT_IDLE_TICKS;
+    private long tick;
+
+    private long reused;
+    private long parked;
+    private long evicted;
+
+    DisplayPool() {
+    }
+
+    /**
+     * Sets how many displays each world keeps parked. 0 turns pooling off.
+     *
+     * @param maxPerWorld The most parked displays per world
+     */
+    public void setMaxPerWorld(int maxPerWorld) {
+        this.maxPerWorld = Math.max(0, maxPerWorld);
+    }
+
+    /**
+     * Sets how long a display may stay parked before it is despawned.
+     *
+     * @param idleTicks Ticks a display may stay parked, at least 1
+     */
+    public void setIdleTicks(int idleTicks) {
+        this.idleTicks = Math.max(1, idleTicks);
+    }
+
+    /**
+     * Takes the most recently parked display in a world, moved to the given location and set up
+     * from the spec as if it had just spawned there.
+     *
+     * @param rightRotation The display's own right rotation, null to keep the spec's
+     * @return The display, or null if the world has none parked
+     */
+    BlockDisplay take(Location location, Quaternionf rightRotation, DisplaySpec spec) {
+        ArrayDeque<Parked> pool = pools.get(location.getWorld().getUID());
+        if (pool == null) {
+            return null;
+        }
+
+        while (!pool.isEmpty()) {
+            BlockDisplay entity = pool.pollLast().entity;
+            if (entity.isValid()) {
+                // moved while still hidden and without interpolation, so it doesn't slide over from where it was parked
+                entity.setTeleportDuration(0);
+                entity.teleport(location);
+                spec.applyTo(entity, rightRotation);
+                reused++;
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hides a display and parks it for reuse.
+     *
+     * @return false if its world's pool is full and the caller should despawn it instead
+     */
+    boolean park(BlockDisplay entity) {
+        if (maxPerWorld == 0 || !entity.isValid()) {
+            return false;
+        }
+
+        ArrayDeque<Parked> pool = pools.computeIfAbsent(entity.getWorld().getUID(), uid -> new ArrayDeque<>());
+        if (pool.size() >= maxPerWorld) {
+            return false;
+        }
+
+        entity.setViewRange(0);
+        pool.addLast(new Parked(entity, tick));
+        parked++;
+        return true;
+    }
+
+    /**
+     * Despawns displays that have been parked too long. Called once per server tick by the DisplayManager.
+     */
+    void tick() {
+        tick++;
+
+        Iterator<ArrayDeque<Parked>> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            ArrayDeque<Parked> pool = iterator.next();
+            // parked in order, so the idle ones are all at the front
+            while (!pool.isEmpty() && tick - pool.peekFirst().parkedAt >= idleTicks) {
+                despawn(pool.pollFirst().entity);
+                evicted++;
+            }
+            if (pool.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets a world's parked displays, for when it unloads along with them.
+     */
+    void remove(World world) {
+        pools.remove(world.getUID());
+    }
+
+    /**
+     * Despawns every parked display.
+     */
+    void clear() {
+        for (ArrayDeque<Parked> pool : pools.values()) {
+            for (Parked entry : pool) {
+                despawn(entry.entity);
+            }
+        }
+        pools.clear();
+
+        if (reused > 0 || parked > 0) {
+            ProjectKorra.log.fine(String.format("[DisplayPool] %d displays reused, %d parked, %d evicted idle",
+                    reused, parked, evicted));
+        }
+    }
+
+    private static void despawn(BlockDisplay entity) {
+        if (entity.isValid()) {
+            entity.remove();
+        }
+    }
+
+    private static class Parked {
+
+        private final BlockDisplay entity;
+        private final long parkedAt;
+
+        private Parked(BlockDisplay entity, long parkedAt) {
+            this.entity = entity;
+            this.parkedAt = parkedAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.doodcraft.cozmyc.vinemanipulation.display;
+
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * The initial state of a display, applied inside the spawn consumer (or to a pooled display
+ * before it is moved into place), so the first packet players get already shows the display the
+ * way it is meant to look. Unset properties keep the vanilla defaults. A spec only describes
+ * state, so one can be shared by every display an animation creates; what differs per display,
+ * like its right rotation, is passed alongside it.
+ */
+public class DisplaySpec {
+
+    private static final Transformation IDENTITY = new Transformation(new Vector3f(), new Quaternionf(), new Vector3f(1, 1, 1), new Quaternionf());
+
+    private Transformation transformation = IDENTITY;
+    private Display.Brightness brightness;
+    private int interpolationDelay;
+    private int interpolationDuration;
+    private int teleportDuration;
+    private float viewRange = 1.0f;
+    private Display.Billboard billboard = Display.Billboard.FIXED;
+
+    public void setTransformation(Transformation transformation) {
+        this.transformation = transformation != null ? transformation : IDENTITY;
+    }
+
+    /**
+     * Sets the transformation to only scale the display, by the same amount on every axis.
+     */
+    public void setScale(float scale) {
+        this.transformation = new Transformation(new Vector3f(), new Quaternionf(), new Vector3f(scale, scale, scale), new Quaternionf());
+    }
+
+    /**
+     * @param brightness The brightness override, null to light the display from the world.
+     */
+    public void setBrightness(Display.Brightness brightness) {
+        this.brightness = brightness;
+    }
+
+    public void setInterpolationDelay(int ticks) {
+        this.interpolationDelay = ticks;
+    }
+
+    public void setInterpolationDuration(int ticks) {
+        this.interpolationDuration = ticks;
+    }
+
+    public void setTeleportDuration(int ticks) {
+        this.teleportDuration = ticks;
+    }
+
+    public void setViewRange(float range) {
+        this.viewRange = range;
+    }
+
+    public void setBillboard(Display.Billboard billboard) {
+        this.billboard = billboard != null ? billboard : Display.Billboard.FIXED;
+    }
+
+    /**
+     * Writes every property of the spec to a display, set or not, so a reused display doesn't
+     * keep anything from its last owner.
+     */
+    void applyTo(Display display) {
+        applyTo(display, null);
+    }
+
+    /**
+     * Writes every property of the spec to a display, with the spec's right rotation replaced.
+     *
+     * @param rightRotation The display's own right rotation, null to keep the spec's
+     */
+    void applyTo(Display display, Quaternionf rightRotation) {
+        display.setTransformation(rightRotation == null ? transformation : new Transformation(
+                transformation.getTranslation(), transformation.getLeftRotation(), transformation.getScale(), rightRotation));
+        display.setBrightness(brightness);
+        display.setInterpolationDelay(interpolationDelay);
+        display.setInterpolationDuration(interpolationDuration);
+        display.setTeleportDuration(teleportDuration);
+        display.setViewRange(viewRange);
+        display.setBillboard(billboard);
+    }
+}
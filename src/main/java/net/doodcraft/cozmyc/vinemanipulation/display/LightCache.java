@@ -0,0 +1,244 @@
+package net.doodcraft.cozmyc.vinemanipulation.display;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Display;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caches block and sky light by block position, so every display segment in the same block, on
+ * any vine, shares one lookup. Entries are resampled once they are a few ticks old, and go stale
+ * early when a block within light range of them is placed or broken, since that's what changes
+ * light around a vine. Main thread only.
+ */
+public class LightCache {
+
+    public static final int DEFAULT_REFRESH_TICKS = 10;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_ENTRIES = 8192;
+    private static final int LIGHT_RANGE = 15;
+    // Brightness is immutable, so one per pair of levels, indexed like the packed light, serves every display
+    private static final Display.Brightness[] BRIGHTNESS = new Display.Brightness[256];
+
+    static {
+        for (int light = 0; light < BRIGHTNESS.length; light++) {
+            BRIGHTNESS[light] = new Display.Brightness(blockLight(light), skyLight(light));
+        }
+    }
+
+    private final Map<UUID, LightTable> tables = new HashMap<>();
+    private World lastWorld;
+    private LightTable lastTable;
+    private int refreshTicks = DEFAULT_REFRESH_TICKS;
+    private long tick;
+
+    LightCache() {
+    }
+
+    /**
+     * Advances the cache's clock. Called once per server tick by the DisplayManager.
+     */
+    void tick() {
+        tick++;
+    }
+
+    /**
+     * Sets how many ticks a sampled light level is reused before the block is read again.
+     *
+     * @param refreshTicks Ticks between samples of the same block, at least 1
+     */
+    public void setRefreshTicks(int refreshTicks) {
+        this.refreshTicks = Math.max(1, refreshTicks);
+    }
+
+    /**
+     * Gets the light at a position, packed as block light in the high four bits and sky light in
+     * the low four. See {@link #blockLight} and {@link #skyLight}.
+     *
+     * @param world The world to sample
+     * @return The packed light levels
+     */
+    public int getLight(World world, double x, double y, double z) {
+        int blockX = (int) Math.floor(x);
+        int blockY = (int) Math.floor(y);
+        int blockZ = (int) Math.floor(z);
+
+        LightTable table = table(world);
+        long key = ((long) (blockX & 0x3FFFFFF) << 38) | ((long) (blockZ & 0x3FFFFFF) << 12) | (blockY & 0xFFF);
+        int slot = table.slot(key);
+
+        if (table.values[slot] >= 0 && !table.stale[slot] && tick - table.stamps[slot] < refreshTicks) {
+            return table.values[slot];
+        }
+
+        Block block = world.getBlockAt(blockX, blockY, blockZ);
+        int light = (block.getLightFromBlocks() << 4) | block.getLightFromSky();
+
+        if (table.values[slot] < 0) {
+            if (table.size >= MAX_ENTRIES) {
+                table.clear();
+                slot = table.slot(key);
+            } else if ((table.size + 1) * 2 > table.keys.length) {
+                table.grow();
+                slot = table.slot(key);
+            }
+            table.size++;
+        }
+
+        table.keys[slot] = key;
+        table.values[slot] = light;
+        table.stamps[slot] = tick;
+        table.stale[slot] = false;
+        return light;
+    }
+
+    /**
+     * Marks the cached light levels a changed block can affect stale: everything within light
+     * range of it, and everything below that, since a block can shade the sky light of the whole
+     * column under it.
+     *
+     * @param block The block that was placed or broken
+     */
+    public void invalidate(Block block) {
+        LightTable table = tables.get(block.getWorld().getUID());
+        if (table == null || table.size == 0) {
+            return;
+        }
+
+        int minX = block.getX() - LIGHT_RANGE;
+        int maxX = block.getX() + LIGHT_RANGE;
+        int minZ = block.getZ() - LIGHT_RANGE;
+        int maxZ = block.getZ() + LIGHT_RANGE;
+        int maxY = block.getY() + LIGHT_RANGE;
+
+        for (int slot = 0; slot < table.keys.length; slot++) {
+            if (table.values[slot] < 0) {
+                continue;
+            }
+            long key = table.keys[slot];
+            int x = (int) (key >> 38);
+            int z = ((int) (key >>> 12) << 6) >> 6;
+            int y = ((int) key << 20) >> 20;
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ && y <= maxY) {
+                table.stale[slot] = true;
+            }
+        }
+    }
+
+    /**
+     * Drops a world's cached light levels, for when it unloads.
+     */
+    public void remove(World world) {
+        tables.remove(world.getUID());
+        if (lastWorld == world) {
+            lastWorld = null;
+            lastTable = null;
+        }
+    }
+
+    /**
+     * Drops every cached light level.
+     */
+    public void clear() {
+        tables.clear();
+        lastWorld = null;
+        lastTable = null;
+    }
+
+    public static int blockLight(int light) {
+        return light >> 4;
+    }
+
+    public static int skyLight(int light) {
+        return light & 0xF;
+    }
+
+    /**
+     * Gets the shared brightness for a pair of light levels, without allocating.
+     *
+     * @param blockLight Block light, 0 to 15
+     * @param skyLight   Sky light, 0 to 15
+     */
+    public static Display.Brightness brightness(int blockLight, int skyLight) {
+        return BRIGHTNESS[(blockLight << 4) | skyLight];
+    }
+
+    private LightTable table(World world) {
+        if (world != lastWorld) {
+            lastTable = tables.computeIfAbsent(world.getUID(), uid -> new LightTable());
+            lastWorld = world;
+        }
+        return lastTable;
+    }
+
+    /**
+     * Open addressing table from packed block positions to packed light, with linear probing.
+     * A negative value marks an empty slot.
+     */
+    private static class LightTable {
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private int[] values = emptyValues(INITIAL_CAPACITY);
+        private long[] stamps = new long[INITIAL_CAPACITY];
+        private boolean[] stale = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Gets the slot holding the key, or the empty slot it would go in.
+         */
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            long[] oldStamps = stamps;
+            boolean[] oldStale = stale;
+
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            values = emptyValues(capacity);
+            stamps = new long[capacity];
+            stale = new boolean[capacity];
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    stamps[slot] = oldStamps[i];
+                    stale[slot] = oldStale[i];
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(values, -1);
+            size = 0;
+        }
+
+        private static int[] emptyValues(int capacity) {
+            int[] values = new int[capacity];
+            Arrays.fill(values, -1);
+            return values;
+        }
+
+        private static int hash(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package net.doodcraft.cozmyc.vinemanipulation.display;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Collects entity mutations, such as despawns, from any thread and runs them on the main thread
+ * when the DisplayManager ticks. One queue drained once per tick replaces a scheduled task per
+ * entity, and the per-tick time budget keeps a burst of removals from landing in a single tick:
+ * whatever doesn't fit is left for the next one.
+ */
+public class MutationQueue {
+
+    public static final int DEFAULT_BUDGET_MICROS = 1000;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private long budgetNanos = DEFAULT_BUDGET_MICROS * 1000L;
+    private long deadline;
+
+    private long executed;
+    private long overBudgetTicks;
+    private int peakBacklog;
+
+    MutationQueue() {
+    }
+
+    /**
+     * Sets how long the queue may run mutations each tick. At least one mutation runs per tick
+     * regardless, so the queue always makes progress.
+     *
+     * @param budgetMicros Microseconds of mutations per tick, at least 1
+     */
+    public void setBudgetMicros(int budgetMicros) {
+        this.budgetNanos = Math.max(1, budgetMicros) * 1000L;
+    }
+
+    /**
+     * Queues a mutation to run on the main thread on one of the next ticks. Safe to call from any thread.
+     */
+    public void submit(Runnable mutation) {
+        queue.offer(mutation);
+        backlog.incrementAndGet();
+    }
+
+    /**
+     * Checks whether the running drain still has budget left. A mutation that works through a
+     * batch of changes checks this between them, and submits itself again with whatever is left
+     * once it returns false. Main thread only, from inside a running mutation.
+     */
+    boolean hasTimeLeft() {
+        return System.nanoTime() < deadline;
+    }
+
+    /**
+     * Gets how many mutations are waiting to run.
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Gets the most mutations that were waiting at the start of a tick.
+     */
+    public int getPeakBacklog() {
+        return peakBacklog;
+    }
+
+    /**
+     * Runs queued mutations until the budget is spent. Called once per server tick by the DisplayManager.
+     */
+    void drain() {
+        int waiting = backlog.get();
+        if (waiting == 0) {
+            return;
+        }
+        peakBacklog = Math.max(peakBacklog, waiting);
+
+        deadline = System.nanoTime() + budgetNanos;
+        Runnable mutation;
+        while ((mutation = queue.poll()) != null) {
+            run(mutation);
+            if (System.nanoTime() >= deadline) {
+                if (!queue.isEmpty()) {
+                    overBudgetTicks++;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs every queued mutation regardless of the budget, for shutdown.
+     */
+    void drainAll() {
+        deadline = Long.MAX_VALUE;
+        Runnable mutation;
+        while ((mutation = queue.poll()) != null) {
+            run(mutation);
+        }
+
+        if (executed > 0) {
+            ProjectKorra.log.fine(String.format("[MutationQueue] %d mutations run, peak backlog %d, %d ticks over budget",
+                    executed, peakBacklog, overBudgetTicks));
+        }
+    }
+
+    private void run(Runnable mutation) {
+        backlog.decrementAndGet();
+        executed++;
+        try {
+            mutation.run();
+        } catch (Exception e) {
+            ProjectKorra.log.log(Level.WARNING, "Queued display mutation failed", e);
+        }
+    }
+}
@@ -59,9 +59,7 @@ public abstract class DisplayAnimation {
             if (removeDisplays) {
                 List<ManagedDisplay> displaysToRemove = new ArrayList<>(this.managedDisplays);
                 this.managedDisplays.clear();
-                for (ManagedDisplay display : displaysToRemove) {
-                    displayManager.removeDisplay(display);
-                }
+                displayManager.removeDisplays(displaysToRemove);
             }
         }
     }
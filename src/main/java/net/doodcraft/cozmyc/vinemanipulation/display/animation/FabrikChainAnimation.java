@@ -3,59 +3,30 @@ package net.doodcraft.cozmyc.vinemanipulation.display.animation;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.Ability;
 import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.util.CatmullRomSpline;
 import net.doodcraft.cozmyc.vinemanipulation.display.animation.util.FabrikChain;
-import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedBlockDisplay;
-import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedDisplay;
-import org.bukkit.Bukkit;
-import org.bukkit.Color;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.Particle;
 import org.bukkit.block.data.BlockData;
-import org.bukkit.entity.BlockDisplay;
-import org.bukkit.entity.Display;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
-import org.bukkit.util.Transformation;
 import org.bukkit.util.Vector;
-import org.joml.Quaternionf;
-import org.joml.Vector3f;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
-public class FabrikChainAnimation extends DisplayAnimation {
+public class FabrikChainAnimation extends RopeAnimation {
 
     private FabrikChain fabrikChain;
-    private List<Vector> segmentVelocities;
-    private final Vector3f cachedScaleVector;
-    private final Vector gravityVector = new Vector(0, -1, 0);
-    private final Vector tempVector = new Vector();
-    private final Location sourceLocation;
-    private Location currentTargetLocation;
-    private final BlockData segmentData;
-    private List<ManagedBlockDisplay> blockDisplays;
-    private Location previousTargetLocation;
-
-    private final float displayScale;
-    private final int maxSegments;
-    private final int minSegments;
-    private final double desiredSpacing;
-    private final double maxChainLength;
-    private final double extensionSpeed;
-    private boolean isChainHidden = false;
-    public boolean snapped = false;
-    private double slackFactor;
-    private int dynamicSegmentCount;
-    private double gravityStrength;
-    public double stiffness;
-    private double dampingFactor;
-    private double currentChainLength;
-    private boolean isFullyExtended;
-    private double targetSmoothing = 0.85;
+    // solved nodes laid out root first, and the rendered joints sampled between them
+    private final double[] nodeBuffer;
+    private final double[] renderBuffer;
+    private int renderSegmentCount;
+    private int simulationNodes;
+
     private int iterations;
     private double tolerance;
+    private double maxAngleConstraintDegrees;
+    private boolean adaptiveIterations;
+    private boolean batchSolve;
+    private RopeModel ropeModel = RopeModel.FABRIK;
 
     /**
      * Creates a new chain animation with physical constraints.
@@ -74,7 +45,7 @@ public class FabrikChainAnimation extends DisplayAnimation {
      * @param fabrikIterations          Number of FABRIK solver iterations
      * @param fabrikTolerance           FABRIK solver tolerance
      * @param gravityStrength           Gravity effect strength (0 for no gravity)
-     * @param maxAngleConstraintDegrees Maximum angle constraint in degrees
+     * @param maxAngleConstraintDegrees Maximum bend between neighbouring segments in degrees, 180 or more for none
      * @param stiffness                 Chain stiffness factor (0-1)
      */
     public FabrikChainAnimation(
@@ -92,567 +63,282 @@ public class FabrikChainAnimation extends DisplayAnimation {
             int fabrikIterations,
             double fabrikTolerance,
             double gravityStrength,
-            double maxAngleConstraintDegrees, // needs reimplementing, determined max angle rotation for segments
+            double maxAngleConstraintDegrees,
             double stiffness,
             double slackFactor
     ) {
-        super(owner, displayManager);
-
-        this.sourceLocation = sourceLocation.clone();
-        this.currentTargetLocation = initialTargetLocation.clone();
-        this.segmentData = segmentData;
-        this.displayScale = displayScale;
-        this.maxSegments = Math.max(1, maxSegments);
-        this.minSegments = Math.max(1, minSegments);
-        this.desiredSpacing = desiredSpacing;
-        this.maxChainLength = Math.max(1.0, maxChainLength);
-        this.extensionSpeed = Math.max(0.1, extensionSpeed);
-        this.gravityStrength = Math.max(0, gravityStrength);
-        this.stiffness = Math.max(0, Math.min(1, stiffness));
-        this.dampingFactor = 0.7;
-        this.blockDisplays = new CopyOnWriteArrayList<>();
-        this.segmentVelocities = new ArrayList<>(maxSegments);
-        this.slackFactor = Math.max(0.1, Math.min(2.0, slackFactor));
-        this.cachedScaleVector = new Vector3f(displayScale, displayScale, displayScale);
+        super(owner, displayManager, sourceLocation, initialTargetLocation, segmentData, displayScale,
+                maxSegments, minSegments, desiredSpacing, maxChainLength, extensionSpeed,
+                gravityStrength, stiffness, slackFactor);
+
+        this.nodeBuffer = new double[(this.maxSegments + 1) * 3];
+        this.renderBuffer = new double[(this.maxSegments + 1) * 3];
         this.iterations = fabrikIterations;
         this.tolerance = fabrikTolerance;
-
-        super.managedDisplays = (List<ManagedDisplay>) (List<?>) this.blockDisplays;
-    }
-
-    /**
-     * Updates the target location for the chain's end point.
-     *
-     * @param targetLocation The new target location.
-     */
-    public void setTargetLocation(Location targetLocation) {
-        if (targetLocation != null) {
-            previousTargetLocation = this.currentTargetLocation != null ?
-                    this.currentTargetLocation.clone() : targetLocation.clone();
-            this.currentTargetLocation = targetLocation.clone();
-        }
+        this.maxAngleConstraintDegrees = maxAngleConstraintDegrees;
     }
 
     @Override
     public void start() {
         super.start();
-        this.currentChainLength = 0.0;
-        this.isFullyExtended = false;
-        this.isChainHidden = false;
-
-        this.segmentVelocities = new ArrayList<>(maxSegments);
-        for (int i = 0; i < maxSegments; i++) {
-            segmentVelocities.add(new Vector(0, 0, 0));
-        }
 
         Vector initialDirection = currentTargetLocation.clone().subtract(sourceLocation).toVector();
         if (initialDirection.lengthSquared() < 0.001) {
             initialDirection = new Vector(0, 1, 0);
         }
 
+        this.renderSegmentCount = minSegments;
+        int initialNodeCount = nodeCount(minSegments);
         List<Double> initialSegmentLengths = new ArrayList<>();
-        double initialSegmentLength = desiredSpacing;
-        for (int i = 0; i < minSegments; i++) {
+        double initialSegmentLength = nodeLength(minSegments, initialNodeCount);
+        for (int i = 0; i < initialNodeCount; i++) {
             initialSegmentLengths.add(initialSegmentLength);
         }
 
-        this.fabrikChain = new FabrikChain(sourceLocation, initialDirection, initialSegmentLengths, iterations, tolerance);
-    }
-
-    @Override
-    public void tick(long deltaTime) {
-        if (!this.running || this.currentTargetLocation == null || this.sourceLocation == null ||
-                !this.sourceLocation.getWorld().equals(this.currentTargetLocation.getWorld())) {
-            return;
-        }
-
-        double deltaTimeSeconds = deltaTime / 1000.0;
-
-        tempVector.setX(currentTargetLocation.clone().getX() - sourceLocation.clone().getX());
-        tempVector.setY(currentTargetLocation.clone().getY() - sourceLocation.clone().getY());
-        tempVector.setZ(currentTargetLocation.clone().getZ() - sourceLocation.clone().getZ());
-        double totalRequiredDistance = tempVector.length();
-
-        if (totalRequiredDistance < 0.8) {
-            if (!isChainHidden) {
-                hideAllDisplays();
-                isChainHidden = true;
-            }
-            return;
-        } else if (isChainHidden && totalRequiredDistance > 0.6) {
-            showAllDisplays();
-            isChainHidden = false;
-        }
-
-        double potentialChainLength = Math.min(totalRequiredDistance + 0.05, this.maxChainLength); // epsilon
-
-        if (!isFullyExtended) {
-            currentChainLength += extensionSpeed * deltaTimeSeconds;
-            if (currentChainLength >= potentialChainLength) {
-                currentChainLength = potentialChainLength;
-                isFullyExtended = true;
-            }
-        } else {
-            currentChainLength = Math.max(currentChainLength, potentialChainLength * 0.95);
-        }
-
-        if (currentChainLength < 0.1) {
-            currentChainLength = 0.1;
-        }
-
-        // this is kind of borked atm using the new variable segment lengths, breaks spacing length config in a profound way,
-        // but lets ignore that for now (just dont change spacing in config yet)
-        double restingLength = calculateRestingLength();
-        double lengthForSegments = isFullyExtended ? restingLength : totalRequiredDistance;
-        dynamicSegmentCount = Math.min(maxSegments, Math.max(minSegments,
-                (int) Math.ceil(lengthForSegments / desiredSpacing)));
-        dynamicSegmentCount = Math.max(3, dynamicSegmentCount);
-
-        updateChainSegmentCount(dynamicSegmentCount);
-
-        adjustManagedDisplayCount(dynamicSegmentCount);
-
-        if (blockDisplays.isEmpty()) {
-            return;
+        // sized for the longest vine up front, so resizing never allocates
+        this.fabrikChain = new FabrikChain(sourceLocation, initialDirection, initialSegmentLengths, maxSegments, iterations, tolerance);
+        this.fabrikChain.setAdaptiveIterations(adaptiveIterations);
+        this.fabrikChain.setMaxAngle(maxAngleConstraintDegrees);
+        this.fabrikChain.setPhysics(this::applyPhysicsToChain);
+        this.fabrikChain.setSolvedListener(this::renderChain);
+        if (ropeModel == RopeModel.CATENARY) {
+            // same sag the visual correction pass aims for, see applyPhysicsToChain
+            this.fabrikChain.setCatenarySag(0.1 * slackFactor, 1.0);
         }
 
-        if (previousTargetLocation != null) {
-            currentTargetLocation = previousTargetLocation.clone().add(
-                    currentTargetLocation.clone().subtract(previousTargetLocation)
-                            .multiply(1 - targetSmoothing));
+        if (batchSolve) {
+            displayManager.getBatchSolver().register(fabrikChain);
         }
-        previousTargetLocation = currentTargetLocation.clone();
-
-        fabrikChain.reach(currentTargetLocation);
-
-        // gravity and lateral physics
-        applyPhysicsToChain(fabrikChain.getSegments(), deltaTimeSeconds);
-
-        List<FabrikChain.ChainSegment> segments = fabrikChain.getSegments();
-
-        // transformations
-        updateDisplayEntities(segments);
-
-//        Bukkit.getLogger().info("totalRequiredDistance: " + totalRequiredDistance +
-//                ", potentialChainLength (before): " + totalRequiredDistance +
-//                ", potentialChainLength (after): " + potentialChainLength +
-//                ", currentChainLength: " + currentChainLength +
-//                ", isFullyExtended: " + isFullyExtended +
-//                ", dynamicSegmentCount: " + dynamicSegmentCount +
-//                ", restingLength: " + restingLength);
     }
 
     /**
-     * Applies physics effects to the chain segments. This is currently tailored for Vines.
+     * Sets whether the chain is solved by the DisplayManager's shared batch solver once per tick
+     * instead of inline during tick(). Batched chains are rendered when the pass solves them, in
+     * the same tick; with AsyncSimulation that is the tick after the target was set.
+     * Takes effect on the next call to start().
+     *
+     * @param batchSolve true to solve with the shared batch solver
      */
-    private void applyPhysicsToChain(List<FabrikChain.ChainSegment> segments, double deltaTime) {
-        if (segments.size() < 2) return;
-
-        // Apply velocity-based physics first (newtonian sag)
-        for (int i = 1; i < segments.size(); i++) {
-            Vector velocity = segmentVelocities.get(i - 1);
-
-            // Enhance gravity effect
-            double gravityMultiplier = 1.0; // set to 1.0 for now, might remove or change later
-            int midpoint = segments.size() / 2;
-            double normalizedPos = Math.abs(i - midpoint) / (double)midpoint;
-            double sagFactor = 1.0 - (normalizedPos * normalizedPos);
-            gravityMultiplier += (sagFactor * slackFactor);
-
-            velocity.add(gravityVector.clone().multiply(gravityStrength * gravityMultiplier * deltaTime));
-            velocity.multiply(dampingFactor);
-
-            Location currentPos = segments.get(i).getEndLocation();
-            currentPos.add(velocity.clone().multiply(deltaTime));
-            segmentVelocities.set(i - 1, velocity);
-        }
-
-        // Length constraint solving
-        Location prevPoint = segments.getFirst().getStartLocation().clone();
-        for (FabrikChain.ChainSegment segment : segments) {
-            Location currentPoint = segment.getEndLocation();
-
-            Vector direction = currentPoint.clone().subtract(prevPoint).toVector();
-            double currentDistance = direction.length();
-
-            if (Math.abs(currentDistance - segment.getLength()) > 0.01) {
-                direction.normalize().multiply(segment.getLength());
-                Location newPos = prevPoint.clone().add(direction);
-                segment.setEndLocation(newPos);
-            }
-
-            prevPoint = segment.getEndLocation().clone();
-        }
-
-        // Target pulling
-        Location endPos = segments.get(segments.size()-1).getEndLocation();
-        if (endPos.distance(currentTargetLocation) > 0.5) {
-            Vector pullDirection = currentTargetLocation.clone().subtract(endPos).toVector().normalize();
-
-            for (int i = segments.size()-1; i >= 0; i--) {
-                double pullFactor = (double)(segments.size() - i) / segments.size();
-                FabrikChain.ChainSegment segment = segments.get(i);
-
-                if (i > 0) {
-                    Location pos = segment.getEndLocation();
-                    pos.add(pullDirection.clone().multiply(0.3 * pullFactor));
-                    segment.setEndLocation(pos);
-                }
-            }
-        }
-
-        // "non-physics" parabolic sag, applies even if another force counters it (visual correction pass)
-        // yes, this seems redundant compared to our newtonian sag, but it may not be!
-        Vector directLine = currentTargetLocation.clone().subtract(sourceLocation).toVector();
-        double directLength = directLine.length();
-        double maxSag = Math.min(directLength * 0.1 * slackFactor, 1.0);
-
-        for (int i = 1; i < segments.size() - 1; i++) {
-            int midpoint = segments.size() / 2;
-            double normalizedPos = Math.abs(i - midpoint) / (double)midpoint;
-            double sagFactor = 1.0 - (normalizedPos * normalizedPos);
-
-            // Apply minimum guaranteed sag
-            Location pos = segments.get(i).getEndLocation();
-            double currentY = pos.getY();
-            double targetY = pos.getY() - (maxSag * sagFactor);
-
-            // Only pull down, don't push up
-            if (currentY > targetY) {
-                pos.setY(targetY);
-                segments.get(i).setEndLocation(pos);
-            }
-        }
+    public void setBatchSolve(boolean batchSolve) {
+        this.batchSolve = batchSolve;
     }
 
     /**
-     * Updates the FabrikChain to have the right number of segments.
+     * Sets whether the solver picks each tick's iteration cap from the chain's convergence history.
+     * Takes effect on the next call to start().
+     *
+     * @param adaptiveIterations true to enable the adaptive iteration budget
      */
-    private void updateChainSegmentCount(int targetSegmentCount) {
-        List<FabrikChain.ChainSegment> currentSegments = fabrikChain.getSegments();
-        if (currentSegments.size() == targetSegmentCount) {
-            return;
-        }
-
-        while (currentSegments.size() < targetSegmentCount) {
-            fabrikChain.addSegment(desiredSpacing);
-            if (segmentVelocities.size() < targetSegmentCount) {
-                segmentVelocities.add(new Vector(0, 0, 0));
-            }
-        }
-
-        while (currentSegments.size() > targetSegmentCount) {
-            fabrikChain.removeLastSegment();
-            if (!segmentVelocities.isEmpty()) {
-                segmentVelocities.remove(segmentVelocities.size() - 1);
-            }
-        }
-
-        while (segmentVelocities.size() < targetSegmentCount -1) {
-            segmentVelocities.add(new Vector(0, 0, 0));
-        }
-        while (segmentVelocities.size() > targetSegmentCount - 1 && !segmentVelocities.isEmpty()) {
-            segmentVelocities.remove(segmentVelocities.size() - 1);
-        }
+    public void setAdaptiveIterations(boolean adaptiveIterations) {
+        this.adaptiveIterations = adaptiveIterations;
     }
 
     /**
-     * Adds extra length to account for sag/gravity.
+     * Sets the most segments the chain is simulated with. A longer vine keeps one display per
+     * DesiredSpacing, but its displays are placed along a Catmull-Rom spline through the
+     * simulated nodes, so solver and physics cost stop growing with the display count.
+     * Takes effect on the next call to start().
+     *
+     * @param simulationNodes The most simulated segments, 0 or less to simulate every display
      */
-    private double calculateRestingLength() {
-        if (sourceLocation == null || currentTargetLocation == null) {
-            return 0.0;
-        }
-        double directDistance = sourceLocation.distance(currentTargetLocation);
-
-        return directDistance * Math.max(1.0, slackFactor);
+    public void setSimulationNodes(int simulationNodes) {
+        this.simulationNodes = Math.max(0, simulationNodes);
     }
 
     /**
-     * Updates the display entities based on segment positions.
+     * Sets how the chain is shaped. With {@link RopeModel#CATENARY} a slack vine is laid on its
+     * catenary without iterating or running physics, and only a taut vine is solved with FABRIK.
+     * Takes effect on the next call to start().
+     *
+     * @param ropeModel The rope model, null for the default
      */
-    private void updateDisplayEntities(List<FabrikChain.ChainSegment> segments) {
-        for (int i = 0; i < segments.size() && i < blockDisplays.size(); i++) {
-            FabrikChain.ChainSegment segment = segments.get(i);
-            ManagedBlockDisplay managedDisplay = blockDisplays.get(i);
-            BlockDisplay display = managedDisplay.getBukkitEntity();
-
-            if (display == null || !display.isValid()) {
-                continue;
-            }
-
-            Location start = segment.getStartLocation();
-            Location end = segment.getEndLocation();
-            Vector direction = end.clone().subtract(start).toVector();
-            Location mid = start.clone().add(direction.multiply(0.5));
-
-            int lightLevel = Math.max(display.getLocation().getBlock().getLightFromBlocks(),
-                    display.getLocation().getBlock().getLightFromSky());
-            lightLevel = Math.max(2, lightLevel);
-
-            // todo: particle based fallback for bedrock clients
-            Color darkGreen = Color.fromRGB(20, 100, 20);
-            Particle.DustOptions plantDust = new Particle.DustOptions(darkGreen, 0.3f);
-            if (Math.random() < 0.15) {
-                playPlantbendingParticles(mid, 1, 0.75, 0.0, 0.75);
-                //mid.getWorld().spawnParticle(Particle.DUST, mid, 0, 0.75, 0.0, 0.75, 0.0, plantDust, true);
-            }
-
-            if (direction.lengthSquared() > 1e-6) {
-                try {
-                    float[] angles = calculateYawPitch(direction);
-                    float yawRad = (float) Math.toRadians(angles[0] + 90f);
-                    float pitchRad = (float) Math.toRadians(angles[1] + 90f);
-                    float rollRad = (float) Math.toRadians(90f);
-
-                    Quaternionf q = new Quaternionf()
-                            .rotateY(yawRad)
-                            .rotateZ(rollRad)
-                            .rotateX(pitchRad);
-
-                    Transformation tf = new Transformation(
-                            new Vector3f(0, 0, 0),
-                            new Quaternionf(),
-                            new Vector3f(displayScale, displayScale, displayScale),
-                            q
-                    );
-
-                    display.setTransformation(tf);
-                    display.setBrightness(new Display.Brightness(lightLevel, lightLevel));
-                } catch (Exception e) {
-                    Bukkit.getLogger().warning("[FabrikChainAnimation] Error updating transformation: " + e.getMessage());
-                }
-
-                display.setTeleportDuration(3);
-
-                Location currentLoc = display.getLocation();
-                if (currentLoc.distanceSquared(mid) > 0.01) {
-                    display.teleport(mid);
-                }
-            }
-        }
+    public void setRopeModel(RopeModel ropeModel) {
+        this.ropeModel = ropeModel == null ? RopeModel.FABRIK : ropeModel;
     }
 
     /**
-     * Calculates yaw and pitch angles from a direction vector.
+     * Gets the underlying IK chain, mostly useful for reading solver telemetry.
+     *
+     * @return the chain, or null if the animation has not been started
      */
-    private float[] calculateYawPitch(Vector vector) {
-        float[] angles = new float[2];
+    public FabrikChain getFabrikChain() {
+        return fabrikChain;
+    }
 
-        double length = vector.length();
-        if (length > 1E-6) {
-            vector.multiply(1.0 / length);
+    @Override
+    protected void simulate(Location targetLocation, double deltaTimeSeconds) {
+        // sag and target pull run as part of the solve, see applyPhysicsToChain,
+        // and the displays are updated once the joints are in, see renderChain
+        if (batchSolve) {
+            fabrikChain.setTarget(targetLocation, deltaTimeSeconds);
         } else {
-            vector.setX(0);
-            vector.setY(1);
-            vector.setZ(0);
+            fabrikChain.reach(targetLocation, deltaTimeSeconds);
         }
-
-        double y = Math.max(-1.0, Math.min(1.0, -vector.getY()));
-        double pitch = Math.asin(y);
-        double yaw = Math.atan2(vector.getX(), vector.getZ());
-
-        angles[0] = (float) Math.toDegrees(yaw);
-        angles[1] = (float) Math.toDegrees(pitch);
-
-        return angles;
     }
 
     /**
-     * Adjusts the number of managed BlockDisplays to match the target count.
+     * Updates the displays from the chain's solved joints. Runs on the main thread whenever a
+     * solve lands in the chain, inline or from the batch solver.
      */
-    private void adjustManagedDisplayCount(int targetCount) {
-        while (blockDisplays.size() < targetCount) {
-            ManagedBlockDisplay newDisplay = displayManager.createBlockDisplay(this.owner, this.sourceLocation, this.segmentData);
-
-            // potentially expensive for what it is,
-            // find another way to temporarily hide displays while being added to the chain?
-            // you can see segments *before* transformations are applied for about a tick otherwise, looks weird
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                player.hideEntity(ProjectKorra.plugin, newDisplay.getBukkitEntity());
-            }
-
-            if (newDisplay != null) {
-                Bukkit.getScheduler().runTaskLater(ProjectKorra.plugin, () -> {
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        player.showEntity(ProjectKorra.plugin, newDisplay.getBukkitEntity());
-                    }
-                }, 2L);
-
-                newDisplay.setScale(this.cachedScaleVector);
-                newDisplay.setBrightness(new Display.Brightness(15, 15));
-                newDisplay.setInterpolationDelay(-1);
-                newDisplay.setInterpolationDuration(3);
-
-                BlockDisplay entity = newDisplay.getBukkitEntity();
-                entity.teleport(sourceLocation);
-
-                blockDisplays.add(newDisplay);
-            } else {
-                break;
-            }
-        }
-
-        while (blockDisplays.size() > targetCount) {
-            ManagedBlockDisplay displayToRemove = blockDisplays.removeLast();
-            if (displayToRemove != null) {
-                displayToRemove.remove();
-            }
+    private void renderChain() {
+        int nodeCount = fabrikChain.getSegmentCount();
+        if (nodeCount >= renderSegmentCount) {
+            updateDisplayEntities(fabrikChain.getJoints(), fabrikChain.getSegmentEnds(), 0, nodeCount);
+            return;
         }
 
-        super.managedDisplays = (List<ManagedDisplay>) (List<?>) this.blockDisplays;
+        System.arraycopy(fabrikChain.getJoints(), 0, nodeBuffer, 0, 3);
+        System.arraycopy(fabrikChain.getSegmentEnds(), 0, nodeBuffer, 3, nodeCount * 3);
+        CatmullRomSpline.sample(nodeBuffer, nodeCount, renderBuffer, renderSegmentCount);
+        updateDisplayEntities(renderBuffer, renderBuffer, 3, renderSegmentCount);
     }
 
-    private void hideAllDisplays() {
-        for (ManagedBlockDisplay display : blockDisplays) {
-            BlockDisplay blockDisplay = display.getBukkitEntity();
-            blockDisplay.setTeleportDuration(1);
-            blockDisplay.setViewRange(0);
+    /**
+     * Applies physics effects to the chain segments. This is currently tailored for Vines.
+     * Runs right after each solve, possibly on a solver worker thread, so it only reads the
+     * snapshot it is handed and the animation's fixed tuning values, never Bukkit state, and
+     * writes nothing but the segment ends.
+     * <p>
+     * Every stage works per segment end, so they run fused in a single pass over the buffers.
+     */
+    private void applyPhysicsToChain(double[] joints, int jointOffset, double[] ends, int endOffset, int segmentCount,
+                                     double sourceX, double sourceY, double sourceZ,
+                                     double targetX, double targetY, double targetZ,
+                                     double deltaTime) {
+        if (segmentCount < 2) {
+            // segment i starts at solved joint i and, before physics, ends at solved joint i + 1
+            System.arraycopy(joints, jointOffset + 3, ends, endOffset, segmentCount * 3);
+            return;
         }
-    }
 
-    private void showAllDisplays() {
-        for (ManagedBlockDisplay display : blockDisplays) {
-            BlockDisplay blockDisplay = display.getBukkitEntity();
-            blockDisplay.setViewRange(64);
-        }
-    }
+        // Length constraint: ends start out as the solved joints, which already sit exactly one
+        // segment length apart, so there is nothing to correct and the tip is still the solved one
 
-    /**
-     * Removes multiple segments from the end of the chain.
-     *
-     * @param count The number of segments to remove
-     */
-    public void bulkRemoveSegments(int count) {
-        if (count <= 0 || blockDisplays.isEmpty()) return;
+        // Target pulling, toward the target from the solved tip
+        int tip = jointOffset + segmentCount * 3;
+        double pullX = targetX - joints[tip];
+        double pullY = targetY - joints[tip + 1];
+        double pullZ = targetZ - joints[tip + 2];
+        double pullDistance = Math.sqrt(pullX * pullX + pullY * pullY + pullZ * pullZ);
+        boolean pulling = pullDistance > 0.5;
+        if (pulling) {
+            pullX /= pullDistance;
+            pullY /= pullDistance;
+            pullZ /= pullDistance;
+        }
 
-        count = Math.min(count, blockDisplays.size());
+        // "non-physics" parabolic sag, applies even if another force counters it (visual correction pass)
+        // yes, this seems redundant compared to our newtonian sag, but it may not be!
+        double lineX = targetX - sourceX;
+        double lineY = targetY - sourceY;
+        double lineZ = targetZ - sourceZ;
+        double directLength = Math.sqrt(lineX * lineX + lineY * lineY + lineZ * lineZ);
+        double maxSag = Math.min(directLength * 0.1 * slackFactor, 1.0);
 
-        List<ManagedBlockDisplay> displaysToRemove = new ArrayList<>(count);
+        int midpoint = segmentCount / 2;
 
-        for (int i = 0; i < count; i++) {
-            if (blockDisplays.isEmpty()) break;
-            displaysToRemove.add(blockDisplays.removeLast());
-        }
+        for (int i = 0; i < segmentCount; i++) {
+            int joint = jointOffset + (i + 1) * 3;
+            double x = joints[joint];
+            double y = joints[joint + 1];
+            double z = joints[joint + 2];
 
-        super.managedDisplays = (List<ManagedDisplay>) (List<?>) blockDisplays;
+            if (i > 0) {
+                double normalizedPos = Math.abs(i - midpoint) / (double) midpoint;
+                double sagFactor = 1.0 - (normalizedPos * normalizedPos);
 
-        for (int i = 0; i < count; i++) {
-            if (fabrikChain.getSegments().size() > 1) {
-                fabrikChain.removeLastSegment();
-            }
-            if (!segmentVelocities.isEmpty()) {
-                segmentVelocities.remove(segmentVelocities.size() - 1);
-            }
-        }
+                if (pulling) {
+                    double pullFactor = (double) (segmentCount - i) / segmentCount;
+                    x += pullX * 0.3 * pullFactor;
+                    y += pullY * 0.3 * pullFactor;
+                    z += pullZ * 0.3 * pullFactor;
+                }
 
-        Bukkit.getScheduler().runTask(ProjectKorra.plugin, () -> {
-            for (ManagedBlockDisplay display : displaysToRemove) {
-                if (display != null) {
-                    display.remove();
+                // minimum guaranteed sag, only pull down, don't push up
+                if (i < segmentCount - 1) {
+                    double saggedY = y - (maxSag * sagFactor);
+                    if (y > saggedY) {
+                        y = saggedY;
+                    }
                 }
             }
-        });
+
+            int end = endOffset + i * 3;
+            ends[end] = x;
+            ends[end + 1] = y;
+            ends[end + 2] = z;
+        }
     }
 
     /**
-     * Retracts the chain by removing segments from the end.
-     *
-     * @param retractionRate How many segments to remove per retraction
+     * Updates the FabrikChain to have the right number of segments for the rendered count. Growing
+     * resamples the joints along the chain's current shape so the new segments don't pile up at
+     * the tip; shrinking trims the tail, which the next solve recovers from in fewer iterations
+     * than a resample. Once the node cap is reached the node count stays put and the nodes
+     * lengthen instead.
      */
-    public void retractChain(int retractionRate) {
-        retractionRate = Math.max(1, retractionRate);
-
-        double targetLength = Math.max(0, currentChainLength - (retractionRate * desiredSpacing));
-        int targetSegmentCount = Math.max(0, (int) (targetLength / desiredSpacing));
-
-        int segmentsToRemove = Math.max(0, blockDisplays.size() - targetSegmentCount);
+    @Override
+    protected void resizeRope(int targetSegmentCount) {
+        renderSegmentCount = Math.max(1, Math.min(maxSegments, targetSegmentCount));
+        int nodeCount = nodeCount(renderSegmentCount);
+        double nodeLength = nodeLength(renderSegmentCount, nodeCount);
 
-        if (segmentsToRemove > 0) {
-            bulkRemoveSegments(segmentsToRemove);
+        if (nodeCount > fabrikChain.getSegmentCount()) {
+            fabrikChain.resample(nodeCount, nodeLength);
+        } else if (nodeCount < fabrikChain.getSegmentCount()) {
+            fabrikChain.setSegmentCount(nodeCount, nodeLength);
         }
 
-        currentChainLength = targetLength;
+        if (simulationNodes > 0) {
+            fabrikChain.setSegmentLengths(nodeLength);
+        }
     }
 
     @Override
-    public void stop(boolean removeDisplays) {
-        super.stop(removeDisplays);
+    protected int getRopeSegmentCount() {
+        return renderSegmentCount;
+    }
 
-        for (Vector velocity : segmentVelocities) {
-            velocity.setX(0);
-            velocity.setY(0);
-            velocity.setZ(0);
+    @Override
+    protected void getRopePoints(double[] points) {
+        int nodeCount = fabrikChain.getSegmentCount();
+        System.arraycopy(fabrikChain.getJoints(), 0, points, 0, 3);
+        if (nodeCount >= renderSegmentCount) {
+            System.arraycopy(fabrikChain.getSegmentEnds(), 0, points, 3, renderSegmentCount * 3);
+            return;
         }
-    }
 
-    /**
-     * Gets whether the chain is fully extended.
-     *
-     * @return true if the chain is fully extended
-     */
-    public boolean isFullyExtended() {
-        return isFullyExtended;
+        System.arraycopy(fabrikChain.getJoints(), 0, nodeBuffer, 0, 3);
+        System.arraycopy(fabrikChain.getSegmentEnds(), 0, nodeBuffer, 3, nodeCount * 3);
+        CatmullRomSpline.sample(nodeBuffer, nodeCount, points, renderSegmentCount);
     }
 
     /**
-     * Gets whether the chain has been snapped/cut.
-     *
-     * @return true if the chain has been snapped/cut
+     * Gets how many segments a vine rendered with the given number of displays is simulated with.
      */
-    public boolean isSnapped() {
-        return this.snapped;
+    private int nodeCount(int renderCount) {
+        return simulationNodes > 0 ? Math.min(renderCount, simulationNodes) : renderCount;
     }
 
     /**
-     * Sets whether the chain has been snapped/cut.
-     *
-     * @param snapped the new snapped state
+     * Gets the length of each simulated segment, so the simulated vine is as long as the rendered one.
      */
-    public void setSnapped(boolean snapped) {
-        this.snapped = snapped;
+    private double nodeLength(int renderCount, int nodeCount) {
+        return desiredSpacing * renderCount / nodeCount;
     }
 
-    /**
-     * Handles the chain being cut at a specific location, splitting it into two parts
-     * with one part falling to the ground.
-     *
-     * @param cutLocation The location where the chain was cut
-     * @return true if the chain was successfully cut, false if already cut or invalid location
-     */
-    public boolean cutChainAt(Location cutLocation) {
-        if (this.snapped || cutLocation == null || blockDisplays.isEmpty()) {
-            return false;
+    @Override
+    public void stop(boolean removeDisplays) {
+        if (this.running && fabrikChain != null && fabrikChain.getSolveCount() > 0) {
+            ProjectKorra.log.fine(String.format("[FabrikChainAnimation] %d solves (%d catenary), %.2f mean iterations (cap %d), %.4f mean error, adaptive=%b, %d nodes for %d segments",
+                    fabrikChain.getSolveCount(), fabrikChain.getCatenarySolveCount(), fabrikChain.getMeanIterations(), iterations,
+                    fabrikChain.getMeanError(), adaptiveIterations, fabrikChain.getSegmentCount(), renderSegmentCount));
         }
 
-        int cutSegmentIndex = -1;
-        double minDistanceSquared = Double.MAX_VALUE;
-
-        for (int i = 0; i < blockDisplays.size(); i++) {
-            ManagedBlockDisplay display = blockDisplays.get(i);
-            BlockDisplay blockDisplay = display.getBukkitEntity();
-            double distSq = blockDisplay.getLocation().distanceSquared(cutLocation);
-
-            if (distSq < minDistanceSquared) {
-                minDistanceSquared = distSq;
-                cutSegmentIndex = i;
-            }
-        }
+        super.stop(removeDisplays);
 
-        if (cutSegmentIndex == -1 || minDistanceSquared > 4.0) {
-            return false;
+        if (fabrikChain != null) {
+            displayManager.getBatchSolver().unregister(fabrikChain);
         }
-
-        this.snapped = true;
-
-        final Location cutSegmentLocation = blockDisplays.get(cutSegmentIndex).getBukkitEntity().getLocation().clone();
-
-        //startFallingAnimation(cutSegmentIndex, cutSegmentLocation);
-
-        return true;
-    }
-
-    public void playPlantbendingParticles(final Location loc, final int amount, final double xOffset, final double yOffset, final double zOffset) {
-        //loc.getWorld().spawnParticle(Particle.BLOCK_CRACK, loc.clone().add(0.5, 0, 0.5), amount, xOffset, yOffset, zOffset, Material.OAK_LEAVES.createBlockData());
     }
 }
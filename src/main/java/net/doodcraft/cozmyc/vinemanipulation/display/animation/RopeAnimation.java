@@ -0,0 +1,636 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.ability.Ability;
+import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
+import net.doodcraft.cozmyc.vinemanipulation.display.DisplaySpec;
+import net.doodcraft.cozmyc.vinemanipulation.display.LightCache;
+import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedBlockDisplay;
+import net.doodcraft.cozmyc.vinemanipulation.display.managed.ManagedDisplay;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.util.Transformation;
+import org.bukkit.util.Vector;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base for animations that stretch a rope of BlockDisplay segments from a root to a moving target.
+ * Handles extension, the dynamic segment count and keeping the displays in line with the rope;
+ * subclasses only decide where the rope's segments are, see {@link #simulate}.
+ */
+public abstract class RopeAnimation extends DisplayAnimation {
+
+    public static final double DEFAULT_POSITION_THRESHOLD = 0.1;
+    public static final double DEFAULT_ANGLE_THRESHOLD = 1.0;
+    public static final int DEFAULT_LIGHT_THRESHOLD = 1;
+    public static final double DEFAULT_SEGMENT_HYSTERESIS = 0.5;
+    public static final int DEFAULT_MAX_SEGMENT_ADDS = 8;
+    public static final int DEFAULT_MAX_SEGMENT_REMOVALS = 4;
+
+    // a segment's block lies along its local -z axis, rolled so its local x points up when the segment is level
+    private static final Quaternionf SEGMENT_ROLL = new Quaternionf().rotateZ((float) Math.toRadians(90));
+    // Transformation copies what it is given, so these can be shared by every display
+    private static final Vector3f NO_TRANSLATION = new Vector3f();
+    private static final Quaternionf NO_ROTATION = new Quaternionf();
+
+    protected final Vector3f cachedScaleVector;
+    protected final Vector tempVector = new Vector();
+    protected final Location sourceLocation;
+    protected Location currentTargetLocation;
+    protected final BlockData segmentData;
+    private final DisplaySpec segmentSpec;
+    protected List<ManagedBlockDisplay> blockDisplays;
+    private Location previousTargetLocation;
+
+    protected final float displayScale;
+    protected final int maxSegments;
+    protected final int minSegments;
+    protected final double desiredSpacing;
+    protected final double maxChainLength;
+    protected final double extensionSpeed;
+    private boolean isChainHidden = false;
+    public boolean snapped = false;
+    protected double slackFactor;
+    protected int dynamicSegmentCount;
+    protected double gravityStrength;
+    public double stiffness;
+    protected double currentChainLength;
+    protected boolean isFullyExtended;
+    private double targetSmoothing = 0.85;
+
+    private double positionThreshold = DEFAULT_POSITION_THRESHOLD;
+    private double angleThreshold = Math.toRadians(DEFAULT_ANGLE_THRESHOLD);
+    private int lightThreshold = DEFAULT_LIGHT_THRESHOLD;
+    private double segmentHysteresis = DEFAULT_SEGMENT_HYSTERESIS;
+    private int maxSegmentAdds = DEFAULT_MAX_SEGMENT_ADDS;
+    private int maxSegmentRemovals = DEFAULT_MAX_SEGMENT_REMOVALS;
+    private long segmentCountChanges;
+    private long segmentsAdded;
+    private long segmentsRemoved;
+
+    // scratch holders reused by every segment of every tick
+    private final Location segmentMid = new Location(null, 0, 0, 0);
+    private final Vector segmentDirection = new Vector();
+    private final Quaternionf segmentRotation = new Quaternionf();
+    // its components are copied when it is applied, so one is refilled and sent to every segment
+    private final Transformation segmentTransformation;
+    private final double[] spawnPoints;
+
+    /**
+     * Creates a new rope animation.
+     *
+     * @param owner                 The ability owner
+     * @param displayManager        The display manager
+     * @param sourceLocation        The root location
+     * @param initialTargetLocation The initial target location
+     * @param segmentData           The block data for rope segments
+     * @param displayScale          The scale of each block display
+     * @param maxSegments           Maximum number of segments
+     * @param minSegments           Minimum number of segments
+     * @param desiredSpacing        Desired spacing between segments
+     * @param maxChainLength        Maximum rope length
+     * @param extensionSpeed        Extension speed in blocks per second
+     * @param gravityStrength       Gravity effect strength (0 for no gravity)
+     * @param stiffness             Rope stiffness factor (0-1)
+     * @param slackFactor           Extra rope length relative to the root-target distance
+     */
+    protected RopeAnimation(
+            Ability owner,
+            DisplayManager displayManager,
+            Location sourceLocation,
+            Location initialTargetLocation,
+            BlockData segmentData,
+            float displayScale,
+            int maxSegments,
+            int minSegments,
+            double desiredSpacing,
+            double maxChainLength,
+            double extensionSpeed,
+            double gravityStrength,
+            double stiffness,
+            double slackFactor
+    ) {
+        super(owner, displayManager);
+
+        this.sourceLocation = sourceLocation.clone();
+        this.currentTargetLocation = initialTargetLocation.clone();
+        this.segmentData = segmentData;
+        this.displayScale = displayScale;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.minSegments = Math.max(1, minSegments);
+        this.desiredSpacing = desiredSpacing;
+        this.maxChainLength = Math.max(1.0, maxChainLength);
+        this.extensionSpeed = Math.max(0.1, extensionSpeed);
+        this.gravityStrength = Math.max(0, gravityStrength);
+        this.stiffness = Math.max(0, Math.min(1, stiffness));
+        this.blockDisplays = new CopyOnWriteArrayList<>();
+        this.slackFactor = Math.max(0.1, Math.min(2.0, slackFactor));
+        this.cachedScaleVector = new Vector3f(displayScale, displayScale, displayScale);
+        this.segmentTransformation = new Transformation(NO_TRANSLATION, NO_ROTATION, cachedScaleVector, new Quaternionf());
+        this.spawnPoints = new double[(this.maxSegments + 1) * 3];
+
+        this.segmentSpec = new DisplaySpec();
+        this.segmentSpec.setScale(displayScale);
+        this.segmentSpec.setBrightness(LightCache.brightness(15, 15));
+        this.segmentSpec.setInterpolationDelay(-1);
+        this.segmentSpec.setInterpolationDuration(3);
+
+        super.managedDisplays = (List<ManagedDisplay>) (List<?>) this.blockDisplays;
+    }
+
+    /**
+     * Moves the rope's segments toward the target for this tick and updates the displays,
+     * usually through {@link #updateDisplayEntities}.
+     *
+     * @param targetLocation   The smoothed target location
+     * @param deltaTimeSeconds Time since the last tick in seconds
+     */
+    protected abstract void simulate(Location targetLocation, double deltaTimeSeconds);
+
+    /**
+     * Resizes the simulated rope to the given number of segments.
+     */
+    protected abstract void resizeRope(int segmentCount);
+
+    /**
+     * Gets the number of segments the simulated rope currently has.
+     */
+    protected abstract int getRopeSegmentCount();
+
+    /**
+     * Writes the rope's current shape as it would be rendered, getRopeSegmentCount() + 1 points
+     * stored as x/y/z triples, segment i running from point i to point i + 1. Used to spawn new
+     * segments where they belong.
+     *
+     * @param points Buffer with room for maxSegments + 1 points
+     */
+    protected abstract void getRopePoints(double[] points);
+
+    /**
+     * Updates the target location for the rope's end point.
+     *
+     * @param targetLocation The new target location.
+     */
+    public void setTargetLocation(Location targetLocation) {
+        if (targetLocation != null) {
+            if (previousTargetLocation == null) {
+                previousTargetLocation = new Location(null, 0, 0, 0);
+            }
+            copy(this.currentTargetLocation != null ? this.currentTargetLocation : targetLocation, previousTargetLocation);
+            if (this.currentTargetLocation == null) {
+                this.currentTargetLocation = new Location(null, 0, 0, 0);
+            }
+            copy(targetLocation, this.currentTargetLocation);
+        }
+    }
+
+    /**
+     * Sets how much a segment has to change before its display is updated. Changes below every
+     * threshold aren't sent at all, so a vine that isn't moving costs next to nothing to keep up.
+     * Takes effect immediately.
+     *
+     * @param position     Distance in blocks a segment has to move before it is teleported
+     * @param angleDegrees Angle a segment has to turn before its transformation is resent
+     * @param light        Light levels the block or sky light has to change by before the brightness is resent
+     */
+    public void setUpdateThresholds(double position, double angleDegrees, int light) {
+        this.positionThreshold = Math.max(0, position);
+        this.angleThreshold = Math.toRadians(Math.max(0, angleDegrees));
+        this.lightThreshold = Math.max(1, light);
+    }
+
+    /**
+     * Sets how eagerly the segment count follows the rope's length. The count only changes once
+     * the length needs more than hysteresis segments beyond the current count (or that many
+     * fewer), so a target bobbing around a segment boundary doesn't spawn and remove a display
+     * every tick. Takes effect immediately.
+     *
+     * @param hysteresis         Width of the band around the current count, in segments
+     * @param maxAddsPerTick     Most segments added in one tick, 0 for no limit
+     * @param maxRemovalsPerTick Most segments removed in one tick, 0 for no limit
+     */
+    public void setSegmentCountLimits(double hysteresis, int maxAddsPerTick, int maxRemovalsPerTick) {
+        this.segmentHysteresis = Math.max(0, hysteresis);
+        this.maxSegmentAdds = Math.max(0, maxAddsPerTick);
+        this.maxSegmentRemovals = Math.max(0, maxRemovalsPerTick);
+    }
+
+    private static void copy(Location from, Location into) {
+        into.setWorld(from.getWorld());
+        into.setX(from.getX());
+        into.setY(from.getY());
+        into.setZ(from.getZ());
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        this.currentChainLength = 0.0;
+        this.isFullyExtended = false;
+        this.isChainHidden = false;
+        this.dynamicSegmentCount = 0;
+        this.segmentCountChanges = 0;
+        this.segmentsAdded = 0;
+        this.segmentsRemoved = 0;
+    }
+
+    @Override
+    public void tick(long deltaTime) {
+        if (!this.running || this.currentTargetLocation == null || this.sourceLocation == null ||
+                !this.sourceLocation.getWorld().equals(this.currentTargetLocation.getWorld())) {
+            return;
+        }
+
+        double deltaTimeSeconds = deltaTime / 1000.0;
+
+        tempVector.setX(currentTargetLocation.getX() - sourceLocation.getX());
+        tempVector.setY(currentTargetLocation.getY() - sourceLocation.getY());
+        tempVector.setZ(currentTargetLocation.getZ() - sourceLocation.getZ());
+        double totalRequiredDistance = tempVector.length();
+
+        if (totalRequiredDistance < 0.8) {
+            if (!isChainHidden) {
+                hideAllDisplays();
+                isChainHidden = true;
+            }
+            return;
+        } else if (isChainHidden && totalRequiredDistance > 0.6) {
+            showAllDisplays();
+            isChainHidden = false;
+        }
+
+        double potentialChainLength = Math.min(totalRequiredDistance + 0.05, this.maxChainLength); // epsilon
+
+        if (!isFullyExtended) {
+            currentChainLength += extensionSpeed * deltaTimeSeconds;
+            if (currentChainLength >= potentialChainLength) {
+                currentChainLength = potentialChainLength;
+                isFullyExtended = true;
+            }
+        } else {
+            currentChainLength = Math.max(currentChainLength, potentialChainLength * 0.95);
+        }
+
+        if (currentChainLength < 0.1) {
+            currentChainLength = 0.1;
+        }
+
+        // this is kind of borked atm using the new variable segment lengths, breaks spacing length config in a profound way,
+        // but lets ignore that for now (just dont change spacing in config yet)
+        double restingLength = calculateRestingLength();
+        double lengthForSegments = isFullyExtended ? restingLength : totalRequiredDistance;
+        dynamicSegmentCount = nextSegmentCount(lengthForSegments / desiredSpacing);
+
+        if (getRopeSegmentCount() != dynamicSegmentCount) {
+            resizeRope(dynamicSegmentCount);
+        }
+
+        adjustManagedDisplayCount(dynamicSegmentCount);
+
+        if (blockDisplays.isEmpty()) {
+            return;
+        }
+
+        if (previousTargetLocation != null) {
+            double follow = 1 - targetSmoothing;
+            currentTargetLocation.setX(previousTargetLocation.getX() + (currentTargetLocation.getX() - previousTargetLocation.getX()) * follow);
+            currentTargetLocation.setY(previousTargetLocation.getY() + (currentTargetLocation.getY() - previousTargetLocation.getY()) * follow);
+            currentTargetLocation.setZ(previousTargetLocation.getZ() + (currentTargetLocation.getZ() - previousTargetLocation.getZ()) * follow);
+        } else {
+            previousTargetLocation = new Location(null, 0, 0, 0);
+        }
+        copy(currentTargetLocation, previousTargetLocation);
+
+        simulate(currentTargetLocation, deltaTimeSeconds);
+    }
+
+    /**
+     * Picks this tick's segment count for a rope whose length fits the given fractional number
+     * of segments, applying the hysteresis band and per tick limits around the displays that
+     * exist now.
+     */
+    private int nextSegmentCount(double segmentsForLength) {
+        int current = blockDisplays.size();
+        int target = (int) Math.ceil(segmentsForLength);
+
+        if (current > 0 && segmentsForLength > current - 1 - segmentHysteresis && segmentsForLength <= current + segmentHysteresis) {
+            target = current;
+        }
+
+        target = Math.max(3, Math.min(maxSegments, Math.max(minSegments, target)));
+
+        if (maxSegmentAdds > 0) {
+            target = Math.min(target, current + maxSegmentAdds);
+        }
+        if (maxSegmentRemovals > 0) {
+            target = Math.max(target, current - maxSegmentRemovals);
+        }
+
+        if (target != current) {
+            segmentCountChanges++;
+            if (target > current) {
+                segmentsAdded += target - current;
+            } else {
+                segmentsRemoved += current - target;
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Gets how many ticks the segment count changed on since the rope started.
+     */
+    public long getSegmentCountChanges() {
+        return segmentCountChanges;
+    }
+
+    /**
+     * Gets how many segments have been added since the rope started.
+     */
+    public long getSegmentsAdded() {
+        return segmentsAdded;
+    }
+
+    /**
+     * Gets how many segments have been removed since the rope started, not counting retraction.
+     */
+    public long getSegmentsRemoved() {
+        return segmentsRemoved;
+    }
+
+    @Override
+    public void stop(boolean removeDisplays) {
+        if (this.running && segmentCountChanges > 0) {
+            ProjectKorra.log.fine(String.format("[%s] segment count changed on %d ticks, %d segments added, %d removed",
+                    getClass().getSimpleName(), segmentCountChanges, segmentsAdded, segmentsRemoved));
+        }
+
+        super.stop(removeDisplays);
+    }
+
+    /**
+     * Adds extra length to account for sag/gravity.
+     */
+    private double calculateRestingLength() {
+        if (sourceLocation == null || currentTargetLocation == null) {
+            return 0.0;
+        }
+        double directDistance = sourceLocation.distance(currentTargetLocation);
+
+        return directDistance * Math.max(1.0, slackFactor);
+    }
+
+    /**
+     * Updates the display entities from raw segment positions. Segment i starts at
+     * starts[i * 3] and ends at ends[endOffset + i * 3]. A display is only teleported, turned
+     * or relit when the change passes the thresholds set with {@link #setUpdateThresholds}.
+     *
+     * @param starts       Buffer holding each segment's start
+     * @param ends         Buffer holding each segment's end
+     * @param endOffset    Index of the first segment end's x component
+     * @param segmentCount Number of segments
+     */
+    protected void updateDisplayEntities(double[] starts, double[] ends, int endOffset, int segmentCount) {
+        World world = sourceLocation.getWorld();
+        LightCache lightCache = displayManager.getLightCache();
+
+        for (int i = 0; i < segmentCount && i < blockDisplays.size(); i++) {
+            ManagedBlockDisplay managedDisplay = blockDisplays.get(i);
+
+            int s = i * 3;
+            int e = endOffset + i * 3;
+            Vector direction = segmentDirection;
+            direction.setX(ends[e] - starts[s]);
+            direction.setY(ends[e + 1] - starts[s + 1]);
+            direction.setZ(ends[e + 2] - starts[s + 2]);
+
+            Location mid = segmentMid;
+            mid.setWorld(world);
+            mid.setX(starts[s] + direction.getX() * 0.5);
+            mid.setY(starts[s + 1] + direction.getY() * 0.5);
+            mid.setZ(starts[s + 2] + direction.getZ() * 0.5);
+
+            if (Math.random() < 0.15) {
+                playPlantbendingParticles(mid, 1, 0.75, 0.0, 0.75);
+            }
+
+            if (direction.lengthSquared() <= 1e-6) {
+                continue;
+            }
+
+            try {
+                Quaternionf q = rotationAlong(segmentRotation, direction.getX(), direction.getY(), direction.getZ());
+
+                if (managedDisplay.needsRightRotation(q, angleThreshold)) {
+                    segmentTransformation.getRightRotation().set(q);
+                    managedDisplay.setTransformation(segmentTransformation);
+                }
+            } catch (Exception ex) {
+                Bukkit.getLogger().warning("[" + getClass().getSimpleName() + "] Error updating transformation: " + ex.getMessage());
+            }
+
+            if (managedDisplay.needsTeleport(mid.getX(), mid.getY(), mid.getZ(), positionThreshold)) {
+                managedDisplay.setTeleportDuration(3);
+                managedDisplay.teleport(mid);
+            }
+
+            // sampled at the segment itself, shared with every other segment in the same block
+            int light = lightCache.getLight(world, mid.getX(), mid.getY(), mid.getZ());
+            int lightLevel = Math.max(2, Math.max(LightCache.blockLight(light), LightCache.skyLight(light)));
+            if (managedDisplay.needsBrightness(lightLevel, lightLevel, lightThreshold)) {
+                managedDisplay.setBrightness(LightCache.brightness(lightLevel, lightLevel));
+            }
+        }
+    }
+
+    /**
+     * Gets the right rotation that lays a segment's block along its direction.
+     *
+     * @param dest The quaternion to write to
+     * @return dest
+     */
+    private static Quaternionf rotationAlong(Quaternionf dest, double dx, double dy, double dz) {
+        // shortest arc from the block's axis onto the segment, no trig or allocation
+        return dest.rotationTo(0f, 0f, -1f, (float) dx, (float) dy, (float) dz).mul(SEGMENT_ROLL);
+    }
+
+    /**
+     * Adjusts the number of managed BlockDisplays to match the target count.
+     */
+    private void adjustManagedDisplayCount(int targetCount) {
+        int missing = targetCount - blockDisplays.size();
+        if (missing > 0) {
+            spawnSegments(blockDisplays.size(), targetCount);
+        } else if (missing < 0) {
+            List<ManagedBlockDisplay> tail = blockDisplays.subList(targetCount, blockDisplays.size());
+            List<ManagedBlockDisplay> displaysToRemove = new ArrayList<>(tail);
+            tail.clear();
+            displayManager.removeDisplays(displaysToRemove);
+        }
+
+        super.managedDisplays = (List<ManagedDisplay>) (List<?>) this.blockDisplays;
+    }
+
+    /**
+     * Spawns the displays for segments from (inclusive) to to (exclusive), each at its midpoint on
+     * the rope and already turned along it, so nothing pops in at the root and swings into place.
+     */
+    private void spawnSegments(int from, int to) {
+        World world = sourceLocation.getWorld();
+        int ropeSegments = getRopeSegmentCount();
+        getRopePoints(spawnPoints);
+
+        List<Location> locations = new ArrayList<>(to - from);
+        List<Quaternionf> rotations = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            // the rope was just resized to match, this only guards against a shorter one
+            int s = Math.min(i, ropeSegments - 1) * 3;
+            double dx = spawnPoints[s + 3] - spawnPoints[s];
+            double dy = spawnPoints[s + 4] - spawnPoints[s + 1];
+            double dz = spawnPoints[s + 5] - spawnPoints[s + 2];
+
+            locations.add(new Location(world, spawnPoints[s] + dx * 0.5, spawnPoints[s + 1] + dy * 0.5, spawnPoints[s + 2] + dz * 0.5));
+            rotations.add(dx * dx + dy * dy + dz * dz > 1e-6 ? rotationAlong(new Quaternionf(), dx, dy, dz) : null);
+        }
+
+        // spawned already scaled, lit and in place, so there's nothing to hide while they settle
+        blockDisplays.addAll(displayManager.createBlockDisplays(this.owner, locations, rotations, this.segmentData, this.segmentSpec));
+    }
+
+    private void hideAllDisplays() {
+        for (ManagedBlockDisplay display : blockDisplays) {
+            ManagedDisplay.Update hide = display.beginUpdate();
+            hide.setTeleportDuration(1);
+            hide.setViewRange(0);
+            hide.apply();
+        }
+    }
+
+    private void showAllDisplays() {
+        for (ManagedBlockDisplay display : blockDisplays) {
+            display.setViewRange(64);
+        }
+    }
+
+    /**
+     * Removes multiple segments from the end of the rope.
+     *
+     * @param count The number of segments to remove
+     */
+    public void bulkRemoveSegments(int count) {
+        if (count <= 0 || blockDisplays.isEmpty()) return;
+
+        count = Math.min(count, blockDisplays.size());
+
+        List<ManagedBlockDisplay> tail = blockDisplays.subList(blockDisplays.size() - count, blockDisplays.size());
+        List<ManagedBlockDisplay> displaysToRemove = new ArrayList<>(tail);
+        tail.clear();
+
+        super.managedDisplays = (List<ManagedDisplay>) (List<?>) blockDisplays;
+
+        int remaining = Math.max(1, getRopeSegmentCount() - count);
+        if (remaining != getRopeSegmentCount()) {
+            resizeRope(remaining);
+        }
+
+        displayManager.removeDisplays(displaysToRemove);
+    }
+
+    /**
+     * Retracts the rope by removing segments from the end.
+     *
+     * @param retractionRate How many segments to remove per retraction
+     */
+    public void retractChain(int retractionRate) {
+        retractionRate = Math.max(1, retractionRate);
+
+        double targetLength = Math.max(0, currentChainLength - (retractionRate * desiredSpacing));
+        int targetSegmentCount = Math.max(0, (int) (targetLength / desiredSpacing));
+
+        int segmentsToRemove = Math.max(0, blockDisplays.size() - targetSegmentCount);
+
+        if (segmentsToRemove > 0) {
+            bulkRemoveSegments(segmentsToRemove);
+        }
+
+        currentChainLength = targetLength;
+    }
+
+    /**
+     * Gets whether the rope is fully extended.
+     *
+     * @return true if the rope is fully extended
+     */
+    public boolean isFullyExtended() {
+        return isFullyExtended;
+    }
+
+    /**
+     * Gets whether the rope has been snapped/cut.
+     *
+     * @return true if the rope has been snapped/cut
+     */
+    public boolean isSnapped() {
+        return this.snapped;
+    }
+
+    /**
+     * Sets whether the rope has been snapped/cut.
+     *
+     * @param snapped the new snapped state
+     */
+    public void setSnapped(boolean snapped) {
+        this.snapped = snapped;
+    }
+
+    /**
+     * Handles the rope being cut at a specific location, splitting it into two parts
+     * with one part falling to the ground.
+     *
+     * @param cutLocation The location where the rope was cut
+     * @return true if the rope was successfully cut, false if already cut or invalid location
+     */
+    public boolean cutChainAt(Location cutLocation) {
+        if (this.snapped || cutLocation == null || blockDisplays.isEmpty()) {
+            return false;
+        }
+
+        int cutSegmentIndex = -1;
+        double minDistanceSquared = Double.MAX_VALUE;
+
+        for (int i = 0; i < blockDisplays.size(); i++) {
+            ManagedBlockDisplay display = blockDisplays.get(i);
+            BlockDisplay blockDisplay = display.getBukkitEntity();
+            if (blockDisplay == null) {
+                continue;
+            }
+            double distSq = blockDisplay.getLocation().distanceSquared(cutLocation);
+
+            if (distSq < minDistanceSquared) {
+                minDistanceSquared = distSq;
+                cutSegmentIndex = i;
+            }
+        }
+
+        if (cutSegmentIndex == -1 || minDistanceSquared > 4.0) {
+            return false;
+        }
+
+        this.snapped = true;
+        return true;
+    }
+
+    // todo: particle based fallback for bedrock clients
+    public void playPlantbendingParticles(final Location loc, final int amount, final double xOffset, final double yOffset, final double zOffset) {
+        //loc.getWorld().spawnParticle(Particle.BLOCK_CRACK, loc.clone().add(0.5, 0, 0.5), amount, xOffset, yOffset, zOffset, Material.OAK_LEAVES.createBlockData());
+    }
+}
@@ -0,0 +1,24 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation;
+
+/**
+ * How a rope-like animation shapes its segments between the root and the target.
+ */
+public enum RopeModel {
+
+    /**
+     * Solves the chain with FABRIK every tick and shapes the sag with the physics passes.
+     */
+    FABRIK,
+
+    /**
+     * Lays a slack chain directly on a catenary in a single pass, and falls back to FABRIK
+     * only while the chain is pulled taut.
+     */
+    CATENARY,
+
+    /**
+     * Simulates the rope as Verlet particles held together by distance constraints, see
+     * {@link VerletRopeAnimation}. Not an IK model, so FabrikChainAnimation treats it as FABRIK.
+     */
+    VERLET
+}
@@ -0,0 +1,300 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.ability.Ability;
+import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
+import net.doodcraft.cozmyc.vinemanipulation.display.animation.util.ArcLengthResampler;
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * Rope animation driven by position based dynamics instead of IK. Every joint is a Verlet
+ * particle, the root and tip are pinned to the source and target, and distance constraints
+ * between neighbours are relaxed a fixed number of times per substep. The simulation advances in
+ * fixed steps (one server tick split into substeps) so its behaviour doesn't depend on how
+ * regularly the ability ticks, and the step loop only touches two flat arrays.
+ */
+public class VerletRopeAnimation extends RopeAnimation {
+
+    public static final int DEFAULT_SUBSTEPS = 4;
+    public static final int DEFAULT_CONSTRAINT_ITERATIONS = 8;
+
+    private static final double TICK_SECONDS = 0.05;
+    private static final double GRAVITY = 9.81; // blocks/s^2 at a GravitySag of 1
+    private static final double DAMPING = 0.98; // velocity kept per step
+    private static final int MAX_CATCH_UP_TICKS = 3;
+
+    // particle i is at positions[i * 3 .. i * 3 + 2], previous holds last step's positions
+    private double[] positions;
+    private double[] previous;
+    private final double[] resampleScratch;
+    private int segmentCount;
+
+    private int substeps = DEFAULT_SUBSTEPS;
+    private int constraintIterations = DEFAULT_CONSTRAINT_ITERATIONS;
+    private double accumulator;
+    private long stepCount;
+
+    /**
+     * Creates a new Verlet rope animation.
+     *
+     * @param owner                 The ability owner
+     * @param displayManager        The display manager
+     * @param sourceLocation        The root location
+     * @param initialTargetLocation The initial target location
+     * @param segmentData           The block data for rope segments
+     * @param displayScale          The scale of each block display
+     * @param maxSegments           Maximum number of segments
+     * @param minSegments           Minimum number of segments
+     * @param desiredSpacing        Rest length of each segment
+     * @param maxChainLength        Maximum rope length
+     * @param extensionSpeed        Extension speed in blocks per second
+     * @param gravityStrength       Gravity effect strength (0 for no gravity)
+     * @param stiffness             How far the rope is pulled toward straight (0-1)
+     * @param slackFactor           Extra rope length relative to the root-target distance
+     */
+    public VerletRopeAnimation(
+            Ability owner,
+            DisplayManager displayManager,
+            Location sourceLocation,
+            Location initialTargetLocation,
+            BlockData segmentData,
+            float displayScale,
+            int maxSegments,
+            int minSegments,
+            double desiredSpacing,
+            double maxChainLength,
+            double extensionSpeed,
+            double gravityStrength,
+            double stiffness,
+            double slackFactor
+    ) {
+        super(owner, displayManager, sourceLocation, initialTargetLocation, segmentData, displayScale,
+                maxSegments, minSegments, desiredSpacing, maxChainLength, extensionSpeed,
+                gravityStrength, stiffness, slackFactor);
+
+        this.positions = new double[(this.maxSegments + 1) * 3];
+        this.previous = new double[(this.maxSegments + 1) * 3];
+        this.resampleScratch = new double[(this.maxSegments + 1) * 3];
+    }
+
+    /**
+     * Sets how many fixed steps each server tick is split into. Takes effect immediately.
+     *
+     * @param substeps Steps per tick, at least 1
+     */
+    public void setSubsteps(int substeps) {
+        this.substeps = Math.max(1, substeps);
+    }
+
+    /**
+     * Sets how many times the distance constraints are relaxed per step. Takes effect immediately.
+     *
+     * @param constraintIterations Relaxation passes per step, at least 1
+     */
+    public void setConstraintIterations(int constraintIterations) {
+        this.constraintIterations = Math.max(1, constraintIterations);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+
+        this.segmentCount = 0;
+        this.accumulator = 0;
+        this.stepCount = 0;
+        setParticle(0, sourceLocation.getX(), sourceLocation.getY(), sourceLocation.getZ());
+    }
+
+    @Override
+    protected void simulate(Location targetLocation, double deltaTimeSeconds) {
+        double stepSeconds = TICK_SECONDS / substeps;
+        accumulator = Math.min(accumulator + deltaTimeSeconds, TICK_SECONDS * MAX_CATCH_UP_TICKS);
+
+        double rootX = sourceLocation.getX();
+        double rootY = sourceLocation.getY();
+        double rootZ = sourceLocation.getZ();
+        double targetX = targetLocation.getX();
+        double targetY = targetLocation.getY();
+        double targetZ = targetLocation.getZ();
+
+        double restLength = restLength(rootX, rootY, rootZ, targetX, targetY, targetZ);
+
+        while (accumulator >= stepSeconds) {
+            step(stepSeconds, restLength, rootX, rootY, rootZ, targetX, targetY, targetZ);
+            accumulator -= stepSeconds;
+            stepCount++;
+        }
+
+        updateDisplayEntities(positions, positions, 3, segmentCount);
+    }
+
+    /**
+     * Gets the segment rest length. Stiffness shortens it toward the length that would pull the
+     * rope straight between its pins, so a tensioned vine straightens instead of jittering.
+     */
+    private double restLength(double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ) {
+        if (segmentCount == 0) {
+            return desiredSpacing;
+        }
+
+        double dx = targetX - rootX;
+        double dy = targetY - rootY;
+        double dz = targetZ - rootZ;
+        double straightLength = Math.sqrt(dx * dx + dy * dy + dz * dz) / segmentCount;
+
+        if (straightLength >= desiredSpacing) {
+            return desiredSpacing;
+        }
+        return desiredSpacing + (straightLength - desiredSpacing) * stiffness;
+    }
+
+    /**
+     * Advances the rope by one fixed step: Verlet integration of the free particles under
+     * gravity, then alternating sweeps over the distance constraints.
+     */
+    private void step(double stepSeconds, double restLength,
+                      double rootX, double rootY, double rootZ,
+                      double targetX, double targetY, double targetZ) {
+        int n = segmentCount;
+        if (n == 0) {
+            return;
+        }
+
+        double[] p = positions;
+        double[] q = previous;
+        double gravity = -GRAVITY * gravityStrength * stepSeconds * stepSeconds;
+
+        for (int i = 1; i < n; i++) {
+            int j = i * 3;
+            double x = p[j];
+            double y = p[j + 1];
+            double z = p[j + 2];
+
+            p[j] = x + (x - q[j]) * DAMPING;
+            p[j + 1] = y + (y - q[j + 1]) * DAMPING + gravity;
+            p[j + 2] = z + (z - q[j + 2]) * DAMPING;
+
+            q[j] = x;
+            q[j + 1] = y;
+            q[j + 2] = z;
+        }
+
+        setParticle(0, rootX, rootY, rootZ);
+        setParticle(n, targetX, targetY, targetZ);
+
+        for (int iteration = 0; iteration < constraintIterations; iteration++) {
+            boolean reverse = (iteration & 1) == 1;
+
+            for (int k = 0; k < n; k++) {
+                int i = reverse ? n - 1 - k : k;
+                double weightA = i == 0 ? 0 : 1;
+                double weightB = i + 1 == n ? 0 : 1;
+                double weight = weightA + weightB;
+                if (weight == 0) {
+                    continue;
+                }
+
+                int a = i * 3;
+                int b = a + 3;
+                double dx = p[b] - p[a];
+                double dy = p[b + 1] - p[a + 1];
+                double dz = p[b + 2] - p[a + 2];
+                double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                if (length < 1e-9) {
+                    continue;
+                }
+
+                double correction = (length - restLength) / (length * weight);
+                dx *= correction;
+                dy *= correction;
+                dz *= correction;
+
+                p[a] += dx * weightA;
+                p[a + 1] += dy * weightA;
+                p[a + 2] += dz * weightA;
+                p[b] -= dx * weightB;
+                p[b + 1] -= dy * weightB;
+                p[b + 2] -= dz * weightB;
+            }
+        }
+    }
+
+    /**
+     * Resizes the rope by resampling its particles, and their previous positions so velocity
+     * carries over, evenly along the rope's current shape. A rope with no shape yet is laid out
+     * between its tip and the target with no velocity.
+     */
+    @Override
+    protected void resizeRope(int targetSegmentCount) {
+        targetSegmentCount = Math.max(1, Math.min(maxSegments, targetSegmentCount));
+        int oldCount = segmentCount;
+        segmentCount = targetSegmentCount;
+
+        if (oldCount > 0) {
+            System.arraycopy(positions, 0, resampleScratch, 0, (oldCount + 1) * 3);
+            if (ArcLengthResampler.resample(resampleScratch, oldCount, positions, targetSegmentCount) > 0) {
+                System.arraycopy(previous, 0, resampleScratch, 0, (oldCount + 1) * 3);
+                if (ArcLengthResampler.resample(resampleScratch, oldCount, previous, targetSegmentCount) == 0) {
+                    System.arraycopy(positions, 0, previous, 0, (targetSegmentCount + 1) * 3);
+                }
+                return;
+            }
+        }
+
+        if (targetSegmentCount <= oldCount) {
+            return;
+        }
+
+        int tip = oldCount * 3;
+        double fromX = positions[tip];
+        double fromY = positions[tip + 1];
+        double fromZ = positions[tip + 2];
+        double toX = currentTargetLocation.getX();
+        double toY = currentTargetLocation.getY();
+        double toZ = currentTargetLocation.getZ();
+
+        int added = targetSegmentCount - oldCount;
+        for (int i = 1; i <= added; i++) {
+            double t = (double) i / added;
+            setParticle(oldCount + i, fromX + (toX - fromX) * t, fromY + (toY - fromY) * t, fromZ + (toZ - fromZ) * t);
+        }
+    }
+
+    @Override
+    protected int getRopeSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    protected void getRopePoints(double[] points) {
+        System.arraycopy(positions, 0, points, 0, (segmentCount + 1) * 3);
+    }
+
+    /**
+     * Places a particle with no velocity.
+     */
+    private void setParticle(int index, double x, double y, double z) {
+        int j = index * 3;
+        positions[j] = previous[j] = x;
+        positions[j + 1] = previous[j + 1] = y;
+        positions[j + 2] = previous[j + 2] = z;
+    }
+
+    /**
+     * Gets how many fixed steps the rope has been advanced since it started.
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    @Override
+    public void stop(boolean removeDisplays) {
+        if (this.running && stepCount > 0) {
+            ProjectKorra.log.fine(String.format("[VerletRopeAnimation] %d steps, %d substeps per tick, %d constraint iterations, %d segments",
+                    stepCount, substeps, constraintIterations, segmentCount));
+        }
+
+        super.stop(removeDisplays);
+    }
+}
@@ -0,0 +1,77 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+/**
+ * Redistributes the points of a polyline evenly along its arc length. Used when a rope changes
+ * its segment count, so the new joints keep the rope's current shape instead of being appended
+ * to or cut off its tail.
+ */
+public final class ArcLengthResampler {
+
+    private ArcLengthResampler() {
+    }
+
+    /**
+     * Resamples a polyline of sourceSegments + 1 points into targetSegments + 1 points spaced
+     * evenly along it, in one pass over both. The first and last points are kept exactly.
+     * Points are stored as x/y/z triples from index 0. The buffers must not overlap.
+     *
+     * @param source         The polyline to resample
+     * @param sourceSegments Number of segments in the source polyline
+     * @param target         Buffer receiving the resampled points
+     * @param targetSegments Number of segments to resample into
+     * @return the source polyline's arc length, or 0 if it has none and nothing was written
+     */
+    public static double resample(double[] source, int sourceSegments, double[] target, int targetSegments) {
+        if (sourceSegments <= 0 || targetSegments <= 0) {
+            return 0;
+        }
+
+        double arcLength = 0;
+        for (int i = 0; i < sourceSegments; i++) {
+            arcLength += segmentLength(source, i);
+        }
+        if (arcLength < 1e-9) {
+            return 0;
+        }
+
+        target[0] = source[0];
+        target[1] = source[1];
+        target[2] = source[2];
+
+        int segment = 0;
+        double segmentStart = 0;
+        double length = segmentLength(source, 0);
+
+        for (int k = 1; k < targetSegments; k++) {
+            double distance = arcLength * k / targetSegments;
+            while (segment < sourceSegments - 1 && segmentStart + length < distance) {
+                segmentStart += length;
+                segment++;
+                length = segmentLength(source, segment);
+            }
+
+            double t = length > 1e-12 ? Math.max(0, Math.min(1, (distance - segmentStart) / length)) : 0;
+            int a = segment * 3;
+            int j = k * 3;
+            target[j] = source[a] + (source[a + 3] - source[a]) * t;
+            target[j + 1] = source[a + 1] + (source[a + 4] - source[a + 1]) * t;
+            target[j + 2] = source[a + 2] + (source[a + 5] - source[a + 2]) * t;
+        }
+
+        int last = sourceSegments * 3;
+        int end = targetSegments * 3;
+        target[end] = source[last];
+        target[end + 1] = source[last + 1];
+        target[end + 2] = source[last + 2];
+
+        return arcLength;
+    }
+
+    private static double segmentLength(double[] points, int segment) {
+        int a = segment * 3;
+        double dx = points[a + 3] - points[a];
+        double dy = points[a + 4] - points[a + 1];
+        double dz = points[a + 5] - points[a + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -0,0 +1,121 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+/**
+ * Places chain joints directly on the catenary a rope of a given length hangs in between two
+ * points. The catenary lives in the vertical plane through both endpoints. Joints are spaced by
+ * arc length in proportion to their segment lengths, so the whole placement is a single O(n) pass
+ * with no IK iterations. The only loop is a handful of Newton steps for the curve's parameter.
+ */
+public final class CatenarySolver {
+
+    private static final int NEWTON_STEPS = 16;
+    private static final double HORIZONTAL_EPSILON = 1e-3;
+
+    private CatenarySolver() {
+    }
+
+    /**
+     * Lays the chain out on the catenary between root and target.
+     *
+     * @param joints         Joint buffer holding segmentCount + 1 joints
+     * @param jointOffset    Index of the root joint's x component
+     * @param segmentLengths Segment length buffer
+     * @param lengthOffset   Index of the first segment length
+     * @param segmentCount   Number of segments
+     * @param ropeLength     Length of rope hanging between the endpoints
+     * @return false if nothing was placed, because the rope is taut (no longer than the straight
+     *         distance) or the endpoints are vertically aligned, in which case IK should take over
+     */
+    public static boolean place(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                                double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                                double ropeLength) {
+        if (segmentCount <= 0) {
+            return false;
+        }
+
+        double hx = targetX - rootX;
+        double hz = targetZ - rootZ;
+        double h = Math.sqrt(hx * hx + hz * hz);
+        double v = targetY - rootY;
+
+        if (h < HORIZONTAL_EPSILON || ropeLength * ropeLength <= (h * h + v * v) * (1 + 1e-9)) {
+            return false;
+        }
+
+        // sinh(z) / z = sqrt(L^2 - v^2) / h, with z = h / 2a
+        double ratio = Math.sqrt(ropeLength * ropeLength - v * v) / h;
+        double z = ratio < 3 ? Math.sqrt(6 * (ratio - 1)) : Math.log(2 * ratio) + Math.log(Math.log(2 * ratio));
+        for (int i = 0; i < NEWTON_STEPS; i++) {
+            double step = (Math.sinh(z) - ratio * z) / (Math.cosh(z) - ratio);
+            z -= step;
+            if (Math.abs(step) < 1e-12) {
+                break;
+            }
+        }
+        if (!(z > 0) || Double.isInfinite(z)) {
+            return false;
+        }
+
+        double a = h / (2 * z);
+        double vertex = h / 2 - a * atanh(v / ropeLength);
+        double coshOrigin = Math.cosh(vertex / a);
+        double sinhOrigin = Math.sinh(vertex / a);
+
+        double ux = hx / h;
+        double uz = hz / h;
+
+        double chainLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            chainLength += segmentLengths[lengthOffset + i];
+        }
+        double arcScale = ropeLength / chainLength;
+
+        joints[jointOffset] = rootX;
+        joints[jointOffset + 1] = rootY;
+        joints[jointOffset + 2] = rootZ;
+
+        double arc = 0;
+        for (int i = 0; i < segmentCount - 1; i++) {
+            arc += segmentLengths[lengthOffset + i] * arcScale;
+
+            // invert s(x) = a sinh((x - vertex) / a) + a sinh(vertex / a)
+            double x = vertex + a * asinh(arc / a - sinhOrigin);
+            double y = a * Math.cosh((x - vertex) / a) - a * coshOrigin;
+
+            int j = jointOffset + (i + 1) * 3;
+            joints[j] = rootX + ux * x;
+            joints[j + 1] = rootY + y;
+            joints[j + 2] = rootZ + uz * x;
+        }
+
+        int end = jointOffset + segmentCount * 3;
+        joints[end] = targetX;
+        joints[end + 1] = targetY;
+        joints[end + 2] = targetZ;
+
+        return true;
+    }
+
+    /**
+     * Gets the rope length that makes a catenary between two points sag by roughly the given amount
+     * below the chord's midpoint, using the shallow-sag approximation L = D + 8s^2 / 3D.
+     *
+     * @param span The straight distance between the endpoints
+     * @param sag  The desired sag
+     * @return The rope length
+     */
+    public static double ropeLengthForSag(double span, double sag) {
+        if (span <= 0) {
+            return 0;
+        }
+        return span + (8 * sag * sag) / (3 * span);
+    }
+
+    private static double asinh(double x) {
+        return x < 0 ? -asinh(-x) : Math.log(x + Math.sqrt(x * x + 1));
+    }
+
+    private static double atanh(double x) {
+        return 0.5 * Math.log((1 + x) / (1 - x));
+    }
+}
@@ -0,0 +1,60 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+/**
+ * Samples a uniform Catmull-Rom spline through a polyline. Used to render a rope with more
+ * segments than it is simulated with: the spline passes through every simulated node, so the
+ * rendered rope follows the simulation exactly at the nodes and smoothly in between.
+ */
+public final class CatmullRomSpline {
+
+    private CatmullRomSpline() {
+    }
+
+    /**
+     * Samples targetSegments + 1 points along the spline through the sourceSegments + 1 nodes,
+     * spaced evenly in the spline's parameter. Since the nodes are roughly evenly spaced along
+     * the rope, so are the samples. The first and last nodes are kept exactly, and the end
+     * tangents are mirrored from the neighbouring node. Points are stored as x/y/z triples from
+     * index 0. The buffers must not overlap.
+     *
+     * @param nodes          The nodes the spline passes through
+     * @param sourceSegments Number of segments between the nodes
+     * @param target         Buffer receiving the sampled points
+     * @param targetSegments Number of segments to sample
+     */
+    public static void sample(double[] nodes, int sourceSegments, double[] target, int targetSegments) {
+        if (sourceSegments <= 0 || targetSegments <= 0) {
+            return;
+        }
+
+        double step = (double) sourceSegments / targetSegments;
+
+        for (int k = 0; k < targetSegments; k++) {
+            double u = k * step;
+            int span = Math.min((int) u, sourceSegments - 1);
+            double t = u - span;
+
+            int p1 = span * 3;
+            int p2 = p1 + 3;
+            int j = k * 3;
+
+            for (int c = 0; c < 3; c++) {
+                double b = nodes[p1 + c];
+                double d = nodes[p2 + c];
+                double a = span > 0 ? nodes[p1 - 3 + c] : 2 * b - d;
+                double e = span + 1 < sourceSegments ? nodes[p2 + 3 + c] : 2 * d - b;
+
+                target[j + c] = 0.5 * (2 * b
+                        + (d - a) * t
+                        + (2 * a - 5 * b + 4 * d - e) * t * t
+                        + (3 * b - a - 3 * d + e) * t * t * t);
+            }
+        }
+
+        int last = sourceSegments * 3;
+        int end = targetSegments * 3;
+        target[end] = nodes[last];
+        target[end + 1] = nodes[last + 1];
+        target[end + 2] = nodes[last + 2];
+    }
+}
@@ -0,0 +1,31 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+/**
+ * Post-solve physics for a FabrikChain, applied right after each solve.
+ * Implementations work purely on primitive buffers and may run on a worker thread,
+ * so they must not touch any Bukkit state.
+ */
+@FunctionalInterface
+public interface ChainPhysics {
+
+    /**
+     * Computes where each segment's end should be rendered, given the solved joints.
+     * Segment i starts at solved joint i and ends at segmentEnds[endOffset + i * 3 .. + 2].
+     *
+     * @param joints         Solved joint buffer (read only)
+     * @param jointOffset    Index of the root joint's x component
+     * @param segmentEnds    Output buffer for segment end positions
+     * @param endOffset      Index of the first segment end's x component
+     * @param segmentCount   Number of segments
+     * @param rootX          Root x at the time of the solve
+     * @param rootY          Root y at the time of the solve
+     * @param rootZ          Root z at the time of the solve
+     * @param targetX        Target x at the time of the solve
+     * @param targetY        Target y at the time of the solve
+     * @param targetZ        Target z at the time of the solve
+     * @param deltaTime      Time step in seconds
+     */
+    void apply(double[] joints, int jointOffset, double[] segmentEnds, int endOffset, int segmentCount,
+               double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+               double deltaTime);
+}
@@ -0,0 +1,542 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Solves every registered FabrikChain in a single pass. Chains with a pending target are packed
+ * back to back into one contiguous joint buffer and one length buffer, solved there, and copied
+ * back out. Meant to be run once per server tick instead of each chain solving inside its own
+ * ability's progress().
+ * <p>
+ * In async mode the packed buffers are handed to a worker pool along with a snapshot of each
+ * chain's root, target and time step, and the main thread keeps rendering whatever the chains
+ * already hold. The chain buffers are the front buffer, the packed batch is the back buffer:
+ * a completed batch is copied into the chains on the next tick, then the next snapshot is packed.
+ * Workers only write the batch. Each slot keeps its own solve result, and the chains' telemetry
+ * and warm start memory are updated from it when the batch is unpacked on the main thread.
+ */
+public class FabrikBatchSolver {
+
+    // FabrikChain keeps identity equality, so membership checks are a hash lookup
+    private final Set<FabrikChain> chains = new LinkedHashSet<>();
+    private final Batch batch = new Batch();
+    private final Logger logger;
+
+    private boolean async;
+    private ForkJoinPool workerPool;
+    private Future<?> inFlight;
+
+    // only created when the vector module is present, so the class is never loaded otherwise
+    private ThreadLocal<VectorFabrikSolver> vectorSolvers;
+
+    private int lastBatchSize;
+    private int lastBatchJoints;
+    private volatile long lastBatchNanos;
+    private long busyTicks;
+
+    /**
+     * @param logger Where solver selection and failed batches are reported
+     */
+    public FabrikBatchSolver(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Registers a chain to be solved with the batch. Chains only take part in a pass when
+     * they have a pending target, see {@link FabrikChain#setTarget}.
+     * Must be called from the main server thread.
+     *
+     * @param chain The chain to register
+     */
+    public void register(FabrikChain chain) {
+        if (chain != null) {
+            chains.add(chain);
+        }
+    }
+
+    /**
+     * Removes a chain from the batch. A solve already in flight for it finishes, but its
+     * results are dropped. Must be called from the main server thread.
+     *
+     * @param chain The chain to unregister
+     */
+    public void unregister(FabrikChain chain) {
+        chains.remove(chain);
+    }
+
+    /**
+     * Sets whether batches are solved on a worker pool instead of the calling thread.
+     * Must be called from the main server thread.
+     *
+     * @param async true to solve off the main thread
+     */
+    public void setAsync(boolean async) {
+        if (this.async == async) {
+            return;
+        }
+
+        if (!async) {
+            collect(true);
+            shutdownPool();
+        }
+        this.async = async;
+    }
+
+    /**
+     * Checks whether the JVM was started with the incubating Vector API module
+     * (--add-modules jdk.incubator.vector) and it offers more than one double lane.
+     *
+     * @return true if the vectorized solver can be used
+     */
+    public static boolean isVectorApiAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorFabrikSolver.lanes() > 1;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets whether chains sharing a segment count are iterated together in vector lanes.
+     * Ignored with a warning if the Vector API isn't available, the scalar solver is used then.
+     * Must be called from the main server thread.
+     *
+     * @param vectorized true to use the vectorized solver when possible
+     * @return true if the vectorized solver is now in use
+     */
+    public boolean setVectorized(boolean vectorized) {
+        collect(true);
+
+        if (!vectorized) {
+            vectorSolvers = null;
+            return false;
+        }
+        if (vectorSolvers != null) {
+            return true;
+        }
+        if (!isVectorApiAvailable()) {
+            logger.warning("[FabrikBatchSolver] Vectorized solver requested, but the JVM was not started with --add-modules jdk.incubator.vector. Using the scalar solver.");
+            return false;
+        }
+
+        vectorSolvers = ThreadLocal.withInitial(VectorFabrikSolver::new);
+        logger.info("[FabrikBatchSolver] Using the vectorized solver with " + VectorFabrikSolver.lanes() + " lanes.");
+        return true;
+    }
+
+    /**
+     * Runs one batch step. Synchronously this packs, solves and unpacks every registered chain
+     * with a pending target. Asynchronously it first applies the previous batch if the worker is
+     * done with it, then packs and submits the next one. If the worker is still busy, nothing
+     * happens this tick and the chains keep their last results.
+     * Must be called from the main server thread.
+     */
+    public void solveAll() {
+        if (async) {
+            if (!collect(false)) {
+                busyTicks++;
+                return;
+            }
+
+            if (pack() > 0) {
+                long submitted = System.nanoTime();
+                inFlight = pool().submit(() -> {
+                    solve(true);
+                    lastBatchNanos = System.nanoTime() - submitted;
+                });
+            }
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        if (pack() > 0) {
+            solve(false);
+            unpack();
+        }
+        lastBatchNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Applies the in-flight batch to its chains if it has finished.
+     *
+     * @param wait true to block until the batch finishes
+     * @return true if nothing is in flight anymore
+     */
+    private boolean collect(boolean wait) {
+        if (inFlight == null) {
+            return true;
+        }
+        if (!wait && !inFlight.isDone()) {
+            return false;
+        }
+
+        try {
+            inFlight.get();
+            unpack();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "[FabrikBatchSolver] Batch solve failed", e);
+            batch.clear();
+        } finally {
+            inFlight = null;
+        }
+        return true;
+    }
+
+    /**
+     * Snapshots every registered chain with a pending target into the packed batch.
+     *
+     * @return the number of chains packed
+     */
+    private int pack() {
+        Batch b = batch;
+        b.ensureChainCapacity(chains.size());
+
+        int size = 0;
+        int totalJoints = 0;
+        int totalSegments = 0;
+
+        for (FabrikChain chain : chains) {
+            int segmentCount = chain.getSegmentCount();
+            if (!chain.hasPendingTarget() || segmentCount <= 0) {
+                continue;
+            }
+
+            b.chains[size] = chain;
+            b.modifications[size] = chain.getModificationCount();
+            b.segmentCounts[size] = segmentCount;
+            b.jointOffsets[size] = totalJoints * 3;
+            b.lengthOffsets[size] = totalSegments;
+            totalJoints += segmentCount + 1;
+            totalSegments += segmentCount;
+            size++;
+        }
+
+        b.size = size;
+        lastBatchSize = size;
+        lastBatchJoints = totalJoints;
+        if (size == 0) {
+            return 0;
+        }
+
+        b.ensureBufferCapacity(totalJoints * 3, totalSegments);
+
+        for (int i = 0; i < size; i++) {
+            FabrikChain chain = b.chains[i];
+            int segmentCount = b.segmentCounts[i];
+            System.arraycopy(chain.getJoints(), 0, b.joints, b.jointOffsets[i], (segmentCount + 1) * 3);
+            System.arraycopy(chain.getSegmentLengths(), 0, b.segmentLengths, b.lengthOffsets[i], segmentCount);
+
+            int s = i * 7;
+            b.snapshots[s] = chain.getRootX();
+            b.snapshots[s + 1] = chain.getRootY();
+            b.snapshots[s + 2] = chain.getRootZ();
+            b.snapshots[s + 3] = chain.getTargetX();
+            b.snapshots[s + 4] = chain.getTargetY();
+            b.snapshots[s + 5] = chain.getTargetZ();
+            b.snapshots[s + 6] = chain.getPendingDeltaTime();
+        }
+
+        return size;
+    }
+
+    /**
+     * Solves every packed chain. Touches nothing but the batch and each chain's solve-side state.
+     */
+    private void solve(boolean parallel) {
+        Batch b = batch;
+        parallel &= b.size > 1;
+
+        if (vectorSolvers == null) {
+            forEach(0, b.size, parallel, b::solveSlot);
+            return;
+        }
+
+        // prepare every chain, iterate same-length chains together in vector lanes, then finish
+        forEach(0, b.size, parallel, b::beginSlot);
+        int groups = b.groupBySegmentCount(VectorFabrikSolver.lanes());
+        forEach(0, groups, parallel, group -> b.iterateGroup(group, vectorSolvers.get()));
+        forEach(0, b.size, parallel, b::finishSlot);
+    }
+
+    private static void forEach(int from, int to, boolean parallel, IntConsumer action) {
+        if (parallel) {
+            IntStream.range(from, to).parallel().forEach(action);
+        } else {
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Copies solved joints and segment ends back into the chains and commits each slot's result,
+     * which notifies each chain's solved listener so it can render the result in the same tick.
+     * Chains that were unregistered, or moved, resized or relengthened since the snapshot, are
+     * skipped. Their target stays pending, so they are solved again from their current state by
+     * the next batch.
+     */
+    private void unpack() {
+        Batch b = batch;
+        for (int i = 0; i < b.size; i++) {
+            FabrikChain chain = b.chains[i];
+            int segmentCount = b.segmentCounts[i];
+
+            if (chains.contains(chain) && chain.getModificationCount() == b.modifications[i]) {
+                System.arraycopy(b.joints, b.jointOffsets[i], chain.getJoints(), 0, (segmentCount + 1) * 3);
+                System.arraycopy(b.segmentEnds, b.lengthOffsets[i] * 3, chain.getSegmentEnds(), 0, segmentCount * 3);
+
+                int s = i * 7;
+                chain.commitSolve(b.results[i],
+                        b.snapshots[s], b.snapshots[s + 1], b.snapshots[s + 2],
+                        b.snapshots[s + 3], b.snapshots[s + 4], b.snapshots[s + 5]);
+            }
+        }
+        b.clear();
+    }
+
+    private ForkJoinPool pool() {
+        if (workerPool == null) {
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            workerPool = new ForkJoinPool(parallelism, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("VineManipulation-Solver-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return workerPool;
+    }
+
+    private void shutdownPool() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+    }
+
+    /**
+     * Drops any in-flight batch, stops the worker pool and forgets all chains.
+     * Must be called from the main server thread.
+     */
+    public void shutdown() {
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+        shutdownPool();
+        batch.clear();
+        chains.clear();
+    }
+
+    /**
+     * Gets whether batches are solved off the main thread.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets the number of chains currently registered.
+     */
+    public int getChainCount() {
+        return chains.size();
+    }
+
+    /**
+     * Gets the number of chains packed in the most recent pass.
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Gets the number of joints packed in the most recent pass.
+     */
+    public int getLastBatchJoints() {
+        return lastBatchJoints;
+    }
+
+    /**
+     * Gets how long the most recent pass took, in nanoseconds. In async mode this is the
+     * worker's time from submission to completion, not main thread time.
+     */
+    public long getLastBatchNanos() {
+        return lastBatchNanos;
+    }
+
+    /**
+     * Gets how many ticks found the worker still busy with the previous batch.
+     */
+    public long getBusyTicks() {
+        return busyTicks;
+    }
+
+    /**
+     * Packed snapshot of one batch. Buffers are reused between ticks and only ever grown.
+     */
+    private static final class Batch {
+        private int size;
+        private FabrikChain[] chains = new FabrikChain[0];
+        private int[] modifications = new int[0];
+        private int[] segmentCounts = new int[0];
+        private int[] jointOffsets = new int[0];
+        private int[] lengthOffsets = new int[0];
+        // root xyz, target xyz, delta time per chain
+        private double[] snapshots = new double[0];
+
+        private double[] joints = new double[0];
+        private double[] segmentLengths = new double[0];
+        private double[] segmentEnds = new double[0];
+        private SolveResult[] results = new SolveResult[0];
+
+        // vectorized path, iteration budget per slot and slots grouped by segment count
+        private int[] budgets = new int[0];
+        private int[] order = new int[0];
+        private int[] groupFrom = new int[0];
+        private int[] groupCount = new int[0];
+
+        private void solveSlot(int i) {
+            int s = i * 7;
+            chains[i].solveTarget(
+                    joints, jointOffsets[i],
+                    segmentLengths, lengthOffsets[i],
+                    segmentEnds, lengthOffsets[i] * 3,
+                    segmentCounts[i],
+                    snapshots[s], snapshots[s + 1], snapshots[s + 2],
+                    snapshots[s + 3], snapshots[s + 4], snapshots[s + 5],
+                    snapshots[s + 6], results[i]
+            );
+        }
+
+        private void beginSlot(int i) {
+            int s = i * 7;
+            budgets[i] = chains[i].beginSolve(
+                    joints, jointOffsets[i],
+                    segmentLengths, lengthOffsets[i],
+                    segmentCounts[i],
+                    snapshots[s], snapshots[s + 1], snapshots[s + 2],
+                    snapshots[s + 3], snapshots[s + 4], snapshots[s + 5],
+                    results[i]
+            );
+        }
+
+        private void finishSlot(int i) {
+            int s = i * 7;
+            chains[i].finishSolve(
+                    joints, jointOffsets[i],
+                    segmentEnds, lengthOffsets[i] * 3,
+                    segmentCounts[i],
+                    snapshots[s], snapshots[s + 1], snapshots[s + 2],
+                    snapshots[s + 3], snapshots[s + 4], snapshots[s + 5],
+                    snapshots[s + 6], results[i]
+            );
+        }
+
+        /**
+         * Orders the slots that need iterating by segment count and cuts them into groups of
+         * at most laneCount chains with the same count.
+         *
+         * @return the number of groups
+         */
+        private int groupBySegmentCount(int laneCount) {
+            int pending = 0;
+            for (int i = 0; i < size; i++) {
+                if (budgets[i] > 0) {
+                    // insertion sort, batches are a few dozen chains at most
+                    int j = pending++;
+                    while (j > 0 && segmentCounts[order[j - 1]] > segmentCounts[i]) {
+                        order[j] = order[j - 1];
+                        j--;
+                    }
+                    order[j] = i;
+                }
+            }
+
+            int groups = 0;
+            for (int i = 0; i < pending; ) {
+                int segmentCount = segmentCounts[order[i]];
+                int count = 1;
+                while (i + count < pending && count < laneCount && segmentCounts[order[i + count]] == segmentCount) {
+                    count++;
+                }
+                groupFrom[groups] = i;
+                groupCount[groups] = count;
+                groups++;
+                i += count;
+            }
+            return groups;
+        }
+
+        private void iterateGroup(int group, VectorFabrikSolver vectorSolver) {
+            int from = groupFrom[group];
+            int count = groupCount[group];
+            int segmentCount = segmentCounts[order[from]];
+
+            if (count == 1) {
+                int i = order[from];
+                int s = i * 7;
+                chains[i].getSolver().iterate(
+                        joints, jointOffsets[i],
+                        segmentLengths, lengthOffsets[i],
+                        segmentCount,
+                        snapshots[s], snapshots[s + 1], snapshots[s + 2],
+                        snapshots[s + 3], snapshots[s + 4], snapshots[s + 5],
+                        budgets[i], results[i]
+                );
+                return;
+            }
+
+            vectorSolver.solve(joints, jointOffsets, segmentLengths, lengthOffsets,
+                    snapshots, budgets, results, chains, order, from, count, segmentCount);
+        }
+
+        private void ensureChainCapacity(int count) {
+            if (chains.length < count) {
+                chains = new FabrikChain[count];
+                modifications = new int[count];
+                segmentCounts = new int[count];
+                jointOffsets = new int[count];
+                lengthOffsets = new int[count];
+                snapshots = new double[count * 7];
+                budgets = new int[count];
+                order = new int[count];
+                groupFrom = new int[count];
+                groupCount = new int[count];
+
+                int filled = results.length;
+                results = Arrays.copyOf(results, count);
+                for (int i = filled; i < count; i++) {
+                    results[i] = new SolveResult();
+                }
+            }
+        }
+
+        private void ensureBufferCapacity(int jointComponents, int segments) {
+            if (joints.length < jointComponents) {
+                joints = Arrays.copyOf(joints, Math.max(jointComponents, joints.length * 2));
+            }
+            if (segmentLengths.length < segments) {
+                int capacity = Math.max(segments, segmentLengths.length * 2);
+                segmentLengths = Arrays.copyOf(segmentLengths, capacity);
+                segmentEnds = Arrays.copyOf(segmentEnds, capacity * 3);
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(chains, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -1,23 +1,69 @@
 package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.util.Vector;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 public class FabrikChain {
 
     private final List<ChainSegment> segments;
     private final Location startLocation;
-    private Location targetLocation;
+    private final Location targetLocation;
     private final FabrikSolver solver;
-    private final List<Double> segmentLengths;
-    private final List<Location> segmentLocations;
+
+    // preallocated segment views, segment i is always segmentArena[i] with segmentArena[i - 1] as its parent
+    private ChainSegment[] segmentArena;
+
+    // solver state lives in flat buffers, joint i is at joints[i * 3 .. i * 3 + 2]
+    private double[] joints;
+    private double[] segmentLengths;
+    private double[] segmentEnds;
+    private double[] resampleScratch;
+    private int segmentCount;
+    private boolean locationsDirty;
+    private boolean pendingTarget;
+    private double pendingDeltaTime;
+    private ChainPhysics physics;
+    private Runnable solvedListener;
+    private final SolveResult inlineResult = new SolveResult();
+
+    // bumped by everything that moves joints or changes segments, so a batch can tell its snapshot is stale
+    private int modificationCount;
 
     private double totalLength;
     private boolean isAttached;
 
+    // warm start, last solve's root and target so we know how far they jumped
+    private double warmStartThreshold = DEFAULT_WARM_START_THRESHOLD;
+    private boolean hasSolved;
+    private double lastRootX, lastRootY, lastRootZ;
+    private double lastTargetX, lastTargetY, lastTargetZ;
+
+    // adaptive iteration budget and convergence telemetry
+    private boolean adaptiveIterations;
+    private int iterationBudget;
+    private double averageIterations;
+    private long solveCount;
+    private long totalIterations;
+    private double totalError;
+
+    // catenary rope model, slack chains are laid on the curve instead of iterated
+    private double catenarySagRatio;
+    private double catenaryMaxSag;
+    private long catenaryCount;
+
+    /** Root/target movement (in blocks) per solve beyond which the chain is re-straightened. */
+    public static final double DEFAULT_WARM_START_THRESHOLD = 1.5;
+
+    /** Lowest iteration cap the adaptive budget will hand out. */
+    private static final int MIN_ADAPTIVE_ITERATIONS = 2;
+
     /**
      * Creates a new IK chain with segments of equal length.
      *
@@ -27,34 +73,7 @@ public class FabrikChain {
      * @param segmentCount Number of segments
      */
     public FabrikChain(Location startLocation, Vector initialDirection, double segmentLength, int segmentCount, int iterations, double tolerance) {
-        this.startLocation = startLocation.clone();
-        this.segments = new ArrayList<>();
-        this.segmentLengths = new ArrayList<>();
-        this.segmentLocations = new ArrayList<>();
-        this.isAttached = true;
-        this.solver = new FabrikSolver(iterations, tolerance);
-        this.totalLength = segmentLength * segmentCount;
-
-        Vector direction = initialDirection.clone().normalize();
-
-        segmentLocations.add(startLocation.clone());
-        Location current = startLocation.clone();
-
-        for (int i = 0; i < segmentCount; i++) {
-            segmentLengths.add(segmentLength);
-
-            Vector offset = direction.clone().multiply(segmentLength);
-            current = current.clone().add(offset);
-            segmentLocations.add(current.clone());
-
-            if (i == 0) {
-                segments.add(new ChainSegment(segmentLocations.get(0), segmentLocations.get(1), null));
-            } else {
-                segments.add(new ChainSegment(segmentLocations.get(i), segmentLocations.get(i + 1), segments.get(i - 1)));
-            }
-        }
-
-        this.targetLocation = segmentLocations.getLast().clone();
+        this(startLocation, initialDirection, Collections.nCopies(segmentCount, segmentLength), iterations, tolerance);
     }
 
     /**
@@ -65,38 +84,75 @@ public class FabrikChain {
      * @param segmentLengths   List of segment lengths
      */
     public FabrikChain(Location startLocation, Vector initialDirection, List<Double> segmentLengths, int iterations, double tolerance) {
+        this(startLocation, initialDirection, segmentLengths, segmentLengths.size(), iterations, tolerance);
+    }
+
+    /**
+     * Creates a chain with segments of varying lengths and room for up to capacity segments.
+     * Every buffer and segment view is allocated here, so growing and shrinking the chain within
+     * its capacity, solving it and reading its segments never allocate.
+     *
+     * @param startLocation    The base location of the chain
+     * @param initialDirection The initial direction vector
+     * @param segmentLengths   List of segment lengths
+     * @param capacity         The most segments the chain will hold, e.g. MaxSegments
+     */
+    public FabrikChain(Location startLocation, Vector initialDirection, List<Double> segmentLengths, int capacity,
+                       int iterations, double tolerance) {
         this.startLocation = startLocation.clone();
-        this.segments = new ArrayList<>();
-        this.segmentLengths = new ArrayList<>(segmentLengths);
-        this.segmentLocations = new ArrayList<>();
+        this.segments = new SegmentList();
         this.isAttached = true;
         this.solver = new FabrikSolver(iterations, tolerance);
 
-        this.totalLength = 0;
-        for (double length : segmentLengths) {
-            this.totalLength += length;
-        }
+        this.segmentCount = segmentLengths.size();
+        int arenaSize = Math.max(1, Math.max(segmentCount, capacity));
+        this.segmentLengths = new double[arenaSize];
+        this.joints = new double[(arenaSize + 1) * 3];
+        this.segmentEnds = new double[arenaSize * 3];
+        this.resampleScratch = new double[joints.length];
+        this.segmentArena = new ChainSegment[0];
+        growSegmentArena(arenaSize);
 
         Vector direction = initialDirection.clone().normalize();
 
-        segmentLocations.add(startLocation.clone());
-        Location current = startLocation.clone();
+        joints[0] = startLocation.getX();
+        joints[1] = startLocation.getY();
+        joints[2] = startLocation.getZ();
 
-        for (int i = 0; i < segmentLengths.size(); i++) {
+        this.totalLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
             double segmentLength = segmentLengths.get(i);
+            this.segmentLengths[i] = segmentLength;
+            this.totalLength += segmentLength;
 
-            Vector offset = direction.clone().multiply(segmentLength);
-            current = current.clone().add(offset);
-            segmentLocations.add(current.clone());
+            int previous = i * 3;
+            joints[previous + 3] = joints[previous] + direction.getX() * segmentLength;
+            joints[previous + 4] = joints[previous + 1] + direction.getY() * segmentLength;
+            joints[previous + 5] = joints[previous + 2] + direction.getZ() * segmentLength;
+        }
+
+        System.arraycopy(joints, 3, segmentEnds, 0, segmentCount * 3);
 
-            if (i == 0) {
-                segments.add(new ChainSegment(segmentLocations.get(0), segmentLocations.get(1), null));
-            } else {
-                segments.add(new ChainSegment(segmentLocations.get(i), segmentLocations.get(i + 1), segments.get(i - 1)));
+        syncLocations();
+        this.targetLocation = getEndLocation();
+    }
+
+    /**
+     * Segment views over the arena, sized to the active segment count.
+     */
+    private final class SegmentList extends AbstractList<ChainSegment> implements RandomAccess {
+        @Override
+        public ChainSegment get(int index) {
+            if (index < 0 || index >= segmentCount) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + segmentCount);
             }
+            return segmentArena[index];
         }
 
-        this.targetLocation = segmentLocations.getLast().clone();
+        @Override
+        public int size() {
+            return segmentCount;
+        }
     }
 
     /**
@@ -105,18 +161,375 @@ public class FabrikChain {
      * @param targetLocation The target location for the end of the chain
      */
     public void reach(Location targetLocation) {
-        this.targetLocation = targetLocation.clone();
+        reach(targetLocation, 0);
+    }
+
+    /**
+     * Updates the chain to reach for the target location, then applies physics with the given time step.
+     *
+     * @param targetLocation The target location for the end of the chain
+     * @param deltaTime      Time step in seconds passed to the chain's physics
+     */
+    public void reach(Location targetLocation, double deltaTime) {
+        setTarget(targetLocation, deltaTime);
+        solveTarget(joints, 0, segmentLengths, 0, segmentEnds, 0, segmentCount,
+                startLocation.getX(), startLocation.getY(), startLocation.getZ(),
+                targetLocation.getX(), targetLocation.getY(), targetLocation.getZ(),
+                deltaTime, inlineResult);
+        commitSolve(inlineResult,
+                startLocation.getX(), startLocation.getY(), startLocation.getZ(),
+                targetLocation.getX(), targetLocation.getY(), targetLocation.getZ());
+    }
+
+    /**
+     * Sets the target without solving. Used when the chain is solved later as part of a batch.
+     *
+     * @param targetLocation The target location for the end of the chain
+     * @param deltaTime      Time step in seconds passed to the chain's physics
+     */
+    public void setTarget(Location targetLocation, double deltaTime) {
+        this.targetLocation.setWorld(targetLocation.getWorld());
+        this.targetLocation.setX(targetLocation.getX());
+        this.targetLocation.setY(targetLocation.getY());
+        this.targetLocation.setZ(targetLocation.getZ());
+        this.pendingDeltaTime = deltaTime;
+        this.pendingTarget = true;
+    }
+
+    /**
+     * Gets whether a target has been set since the chain was last solved.
+     */
+    public boolean hasPendingTarget() {
+        return pendingTarget;
+    }
+
+    /**
+     * Marks the pending target as consumed and the chain's locations as needing a copy-out, then
+     * notifies the solved listener. Called on the main thread once solved joints are in {@link #getJoints()}.
+     */
+    public void markSolved() {
+        pendingTarget = false;
+        locationsDirty = true;
+
+        if (solvedListener != null) {
+            solvedListener.run();
+        }
+    }
+
+    /**
+     * Sets what runs on the main thread each time solved joints land in the chain, either right
+     * after {@link #reach} or when a batch pass copies them in. A batched chain is solved later
+     * than its target is set, so this is where it should be rendered.
+     *
+     * @param solvedListener The listener, or null for none
+     */
+    public void setSolvedListener(Runnable solvedListener) {
+        this.solvedListener = solvedListener;
+    }
+
+    /**
+     * Sets the physics applied after every solve, or null for none. Without physics,
+     * segment ends are simply the solved joints.
+     */
+    public void setPhysics(ChainPhysics physics) {
+        this.physics = physics;
+    }
+
+    /**
+     * Solves a snapshot of this chain held in the given buffers and applies the chain's physics.
+     * The snapshot and result are passed in and the chain's own state is only read, so a batch
+     * may call this off the main thread while the chain keeps changing. Only one solve per chain
+     * may be in flight at a time, since the solver's scratch state is shared. The caller then
+     * copies the buffers back into {@link #getJoints()}/{@link #getSegmentEnds()} if they are not
+     * the chain's own and hands the result to {@link #commitSolve} on the main thread.
+     *
+     * @param jointBuffer  Buffer holding the chain's joints at jointOffset
+     * @param jointOffset  Index of the root joint's x component
+     * @param lengthBuffer Buffer holding the chain's segment lengths at lengthOffset
+     * @param lengthOffset Index of the first segment length
+     * @param endBuffer    Output buffer for segment end positions
+     * @param endOffset    Index of the first segment end's x component
+     * @param segmentCount Number of segments in the snapshot
+     * @param deltaTime    Time step in seconds passed to the chain's physics
+     * @param result       Receives the iteration budget, iterations used and final error
+     */
+    void solveTarget(double[] jointBuffer, int jointOffset, double[] lengthBuffer, int lengthOffset,
+                     double[] endBuffer, int endOffset, int segmentCount,
+                     double rootX, double rootY, double rootZ,
+                     double targetX, double targetY, double targetZ,
+                     double deltaTime, SolveResult result) {
+        int budget = beginSolve(jointBuffer, jointOffset, lengthBuffer, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, result);
+
+        if (budget > 0) {
+            solver.iterate(jointBuffer, jointOffset, lengthBuffer, lengthOffset, segmentCount,
+                    rootX, rootY, rootZ, targetX, targetY, targetZ, budget, result);
+        }
+
+        finishSolve(jointBuffer, jointOffset, endBuffer, endOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, deltaTime, result);
+    }
+
+    /**
+     * First phase of {@link #solveTarget}: picks warm start and the iteration budget from the
+     * last committed solve, and straightens the snapshot if needed.
+     *
+     * @return the iteration budget, or 0 if the snapshot needs no iterating
+     */
+    int beginSolve(double[] jointBuffer, int jointOffset, double[] lengthBuffer, int lengthOffset, int segmentCount,
+                   double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                   SolveResult result) {
+        result.reset();
+        result.catenaryPlaced = catenarySagRatio > 0 && CatenarySolver.place(jointBuffer, jointOffset, lengthBuffer, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ,
+                catenaryRopeLength(lengthBuffer, lengthOffset, segmentCount, rootX, rootY, rootZ, targetX, targetY, targetZ));
+        if (result.catenaryPlaced) {
+            return 0;
+        }
 
-        List<Location> solvedLocations = solver.solve(
-                startLocation,
-                targetLocation,
-                segmentLengths,
-                segmentLocations
-        );
+        boolean warmStart = canWarmStart(rootX, rootY, rootZ, targetX, targetY, targetZ);
+        result.iterationBudget = warmStart && adaptiveIterations
+                ? nextIterationBudget(lengthBuffer, lengthOffset, segmentCount, targetX, targetY, targetZ)
+                : solver.getMaxIterations();
 
-        for (int i = 0; i < segments.size(); i++) {
-            segments.get(i).updatePositions(solvedLocations.get(i), solvedLocations.get(i + 1));
+        boolean iterate = solver.prepare(jointBuffer, jointOffset, lengthBuffer, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, warmStart, result);
+
+        return iterate ? solver.clampIterations(result.iterationBudget) : 0;
+    }
+
+    /**
+     * Last phase of {@link #solveTarget}: applies physics to the snapshot. A chain laid on its
+     * catenary is already at rest, so it skips physics.
+     */
+    void finishSolve(double[] jointBuffer, int jointOffset, double[] endBuffer, int endOffset, int segmentCount,
+                     double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                     double deltaTime, SolveResult result) {
+        if (result.catenaryPlaced) {
+            System.arraycopy(jointBuffer, jointOffset + 3, endBuffer, endOffset, segmentCount * 3);
+        } else if (physics != null) {
+            physics.apply(jointBuffer, jointOffset, endBuffer, endOffset, segmentCount,
+                    rootX, rootY, rootZ, targetX, targetY, targetZ, deltaTime);
+        } else {
+            System.arraycopy(jointBuffer, jointOffset + 3, endBuffer, endOffset, segmentCount * 3);
+        }
+    }
+
+    /**
+     * Records a finished solve as the chain's telemetry and warm start memory, then marks it
+     * solved. Called on the main thread once the solved joints are in {@link #getJoints()}, so
+     * everything the getters read is only ever written here.
+     *
+     * @param result The solve's result
+     */
+    void commitSolve(SolveResult result, double rootX, double rootY, double rootZ,
+                     double targetX, double targetY, double targetZ) {
+        solver.recordResult(result.iterations, result.errorSq);
+        if (result.catenaryPlaced) {
+            catenaryCount++;
+        } else {
+            iterationBudget = result.iterationBudget;
         }
+        recordSolve();
+
+        hasSolved = true;
+        lastRootX = rootX;
+        lastRootY = rootY;
+        lastRootZ = rootZ;
+        lastTargetX = targetX;
+        lastTargetY = targetY;
+        lastTargetZ = targetZ;
+
+        markSolved();
+    }
+
+    /**
+     * Gets a counter that changes whenever joints are moved or segments change outside a solve.
+     * A batch compares it before and after solving a snapshot to tell whether the snapshot is stale.
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    FabrikSolver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Whether the joint buffer still holds a solution close enough to continue from.
+     * After a big jump of either end it's cheaper to start over from a straight line.
+     */
+    private boolean canWarmStart(double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ) {
+        if (!hasSolved || warmStartThreshold <= 0) {
+            return false;
+        }
+
+        double thresholdSq = warmStartThreshold * warmStartThreshold;
+
+        double dx = rootX - lastRootX;
+        double dy = rootY - lastRootY;
+        double dz = rootZ - lastRootZ;
+        if (dx * dx + dy * dy + dz * dz > thresholdSq) {
+            return false;
+        }
+
+        dx = targetX - lastTargetX;
+        dy = targetY - lastTargetY;
+        dz = targetZ - lastTargetZ;
+        return dx * dx + dy * dy + dz * dz <= thresholdSq;
+    }
+
+    /**
+     * Picks this solve's iteration cap from how many iterations recent solves needed and how far
+     * the target moved since the last one. A solve that ran out of budget doubles the next cap.
+     */
+    private int nextIterationBudget(double[] lengthBuffer, int lengthOffset, int segmentCount,
+                                    double targetX, double targetY, double targetZ) {
+        int maxIterations = solver.getMaxIterations();
+
+        double chainLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            chainLength += lengthBuffer[lengthOffset + i];
+        }
+
+        double dx = targetX - lastTargetX;
+        double dy = targetY - lastTargetY;
+        double dz = targetZ - lastTargetZ;
+        double targetMovement = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double averageSpacing = segmentCount > 0 ? chainLength / segmentCount : chainLength;
+
+        int budget = (int) Math.ceil(averageIterations * 1.5) + 1;
+        budget += (int) Math.ceil(targetMovement / Math.max(0.05, averageSpacing));
+
+        if (!solver.hasConverged() && solver.getLastIterations() >= iterationBudget) {
+            budget = Math.max(budget, iterationBudget * 2);
+        }
+
+        return Math.max(MIN_ADAPTIVE_ITERATIONS, Math.min(maxIterations, budget));
+    }
+
+    /**
+     * Gets the length of rope to hang on the catenary: enough to sag by the configured amount,
+     * but never more than the chain actually has. Once the chain is shorter than the straight
+     * distance the rope is taut and the solver takes over.
+     */
+    private double catenaryRopeLength(double[] lengthBuffer, int lengthOffset, int segmentCount,
+                                      double rootX, double rootY, double rootZ,
+                                      double targetX, double targetY, double targetZ) {
+        double chainLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            chainLength += lengthBuffer[lengthOffset + i];
+        }
+
+        double dx = targetX - rootX;
+        double dy = targetY - rootY;
+        double dz = targetZ - rootZ;
+        double span = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double sag = Math.min(span * catenarySagRatio, catenaryMaxSag);
+
+        return Math.min(chainLength, CatenarySolver.ropeLengthForSag(span, sag));
+    }
+
+    private void recordSolve() {
+        int iterations = solver.getLastIterations();
+        if (iterations > 0) {
+            averageIterations = solveCount == 0 ? iterations : averageIterations * 0.8 + iterations * 0.2;
+        }
+
+        solveCount++;
+        totalIterations += iterations;
+        totalError += solver.getLastError();
+    }
+
+    /**
+     * Enables or disables the adaptive iteration budget. When enabled, warm-started solves are
+     * capped from the chain's recent convergence history instead of always getting the solver's
+     * full iteration count.
+     */
+    public void setAdaptiveIterations(boolean adaptiveIterations) {
+        this.adaptiveIterations = adaptiveIterations;
+    }
+
+    /**
+     * Enables the catenary rope model. While the chain has slack it is laid directly on the
+     * catenary between its root and target, sagging by sagRatio of the span up to maxSag blocks,
+     * with no solver iterations and no physics. Once the chain is pulled taut it is solved with
+     * FABRIK as usual, continuing from the catenary's shape.
+     *
+     * @param sagRatio Sag as a fraction of the root-target distance, 0 or less disables the model
+     * @param maxSag   Largest sag in blocks
+     */
+    public void setCatenarySag(double sagRatio, double maxSag) {
+        this.catenarySagRatio = sagRatio;
+        this.catenaryMaxSag = maxSag;
+    }
+
+    /**
+     * Gets how many solves were placed on the catenary instead of being iterated.
+     */
+    public long getCatenarySolveCount() {
+        return catenaryCount;
+    }
+
+    /**
+     * Limits how far each segment may bend away from the one before it, see
+     * {@link FabrikSolver#setMaxAngle(double)}.
+     *
+     * @param maxAngleDegrees The largest allowed angle between neighbouring segments
+     */
+    public void setMaxAngle(double maxAngleDegrees) {
+        solver.setMaxAngle(maxAngleDegrees);
+    }
+
+    /**
+     * Gets the iteration cap used for the most recent solve.
+     */
+    public int getIterationBudget() {
+        return iterationBudget;
+    }
+
+    /**
+     * Gets the number of iterations the most recent solve used.
+     */
+    public int getLastIterations() {
+        return solver.getLastIterations();
+    }
+
+    /**
+     * Gets the end effector's distance from the target after the most recent solve.
+     */
+    public double getLastError() {
+        return solver.getLastError();
+    }
+
+    /**
+     * Gets the number of solves this chain has run.
+     */
+    public long getSolveCount() {
+        return solveCount;
+    }
+
+    /**
+     * Gets the mean number of iterations per solve over the chain's lifetime.
+     */
+    public double getMeanIterations() {
+        return solveCount == 0 ? 0 : (double) totalIterations / solveCount;
+    }
+
+    /**
+     * Gets the mean final error per solve over the chain's lifetime.
+     */
+    public double getMeanError() {
+        return solveCount == 0 ? 0 : totalError / solveCount;
+    }
+
+    /**
+     * Sets how far (in blocks) the root or target may move between solves before the solver
+     * throws away the previous solution and starts from a straight line again.
+     * A threshold of 0 or less disables warm starting.
+     */
+    public void setWarmStartThreshold(double warmStartThreshold) {
+        this.warmStartThreshold = warmStartThreshold;
     }
 
     /**
@@ -131,34 +544,87 @@ public class FabrikChain {
      */
     public void setStartLocation(Location startLocation) {
         if (this.isAttached) {
-            Vector offset = startLocation.clone().subtract(this.startLocation).toVector();
+            double offsetX = startLocation.getX() - this.startLocation.getX();
+            double offsetY = startLocation.getY() - this.startLocation.getY();
+            double offsetZ = startLocation.getZ() - this.startLocation.getZ();
 
             this.startLocation.setX(startLocation.getX());
             this.startLocation.setY(startLocation.getY());
             this.startLocation.setZ(startLocation.getZ());
 
-            for (Location location : segmentLocations) {
-                location.add(offset);
+            for (int i = 0, n = (segmentCount + 1) * 3; i < n; i += 3) {
+                joints[i] += offsetX;
+                joints[i + 1] += offsetY;
+                joints[i + 2] += offsetZ;
             }
-
-            for (int i = 0; i < segments.size(); i++) {
-                segments.get(i).updatePositions(segmentLocations.get(i), segmentLocations.get(i + 1));
+            for (int i = 0, n = segmentCount * 3; i < n; i += 3) {
+                segmentEnds[i] += offsetX;
+                segmentEnds[i + 1] += offsetY;
+                segmentEnds[i + 2] += offsetZ;
             }
+
+            locationsDirty = true;
+            modificationCount++;
         }
     }
 
     /**
-     * Gets all segments in the chain.
+     * Gets all segments in the chain. Segment positions are copied out of the joint buffer
+     * lazily, only when something asks for them after a solve.
      */
     public List<ChainSegment> getSegments() {
+        if (locationsDirty) {
+            syncLocations();
+        }
         return segments;
     }
 
+    /**
+     * Gets the number of segments in the chain without syncing segment locations.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Gets the raw joint buffer. Joint i is stored at index i * 3 as x, y, z.
+     * Only the first (getSegmentCount() + 1) * 3 entries are meaningful.
+     */
+    public double[] getJoints() {
+        return joints;
+    }
+
+    /**
+     * Gets the raw segment end buffer, where physics places each segment's rendered end.
+     * Segment i ends at index i * 3. Only the first getSegmentCount() * 3 entries are meaningful.
+     */
+    public double[] getSegmentEnds() {
+        return segmentEnds;
+    }
+
+    /**
+     * Gets the raw segment length buffer. Only the first getSegmentCount() entries are meaningful.
+     */
+    public double[] getSegmentLengths() {
+        return segmentLengths;
+    }
+
     /**
      * Gets the end location of the chain.
      */
     public Location getEndLocation() {
-        return segmentLocations.get(segmentLocations.size() - 1).clone();
+        int end = segmentCount * 3;
+        return new Location(startLocation.getWorld(), joints[end], joints[end + 1], joints[end + 2]);
+    }
+
+    /**
+     * Copies the end location of the chain into the given location.
+     *
+     * @param into The location to overwrite
+     * @return into, for chaining
+     */
+    public Location getEndLocation(Location into) {
+        return getJoint(segmentCount, into);
     }
 
     /**
@@ -168,6 +634,95 @@ public class FabrikChain {
         return startLocation.clone();
     }
 
+    /**
+     * Copies the start location of the chain into the given location.
+     *
+     * @param into The location to overwrite
+     * @return into, for chaining
+     */
+    public Location getStartLocation(Location into) {
+        into.setWorld(startLocation.getWorld());
+        into.setX(startLocation.getX());
+        into.setY(startLocation.getY());
+        into.setZ(startLocation.getZ());
+        return into;
+    }
+
+    /**
+     * Copies solved joint i into the given location. Joint 0 is the root and joint
+     * getSegmentCount() is the tip.
+     *
+     * @param index The joint index
+     * @param into  The location to overwrite
+     * @return into, for chaining
+     */
+    public Location getJoint(int index, Location into) {
+        int j = index * 3;
+        into.setWorld(startLocation.getWorld());
+        into.setX(joints[j]);
+        into.setY(joints[j + 1]);
+        into.setZ(joints[j + 2]);
+        return into;
+    }
+
+    /**
+     * Copies the rendered end of segment i into the given location. Segment i starts at joint i.
+     *
+     * @param index The segment index
+     * @param into  The location to overwrite
+     * @return into, for chaining
+     */
+    public Location getSegmentEnd(int index, Location into) {
+        int j = index * 3;
+        into.setWorld(startLocation.getWorld());
+        into.setX(segmentEnds[j]);
+        into.setY(segmentEnds[j + 1]);
+        into.setZ(segmentEnds[j + 2]);
+        return into;
+    }
+
+    /**
+     * Gets the x of solved joint i straight from the buffer.
+     */
+    public double getJointX(int index) {
+        return joints[index * 3];
+    }
+
+    /**
+     * Gets the y of solved joint i straight from the buffer.
+     */
+    public double getJointY(int index) {
+        return joints[index * 3 + 1];
+    }
+
+    /**
+     * Gets the z of solved joint i straight from the buffer.
+     */
+    public double getJointZ(int index) {
+        return joints[index * 3 + 2];
+    }
+
+    /**
+     * Gets the x of segment i's rendered end straight from the buffer.
+     */
+    public double getSegmentEndX(int index) {
+        return segmentEnds[index * 3];
+    }
+
+    /**
+     * Gets the y of segment i's rendered end straight from the buffer.
+     */
+    public double getSegmentEndY(int index) {
+        return segmentEnds[index * 3 + 1];
+    }
+
+    /**
+     * Gets the z of segment i's rendered end straight from the buffer.
+     */
+    public double getSegmentEndZ(int index) {
+        return segmentEnds[index * 3 + 2];
+    }
+
     /**
      * Gets the total chain length.
      */
@@ -181,65 +736,275 @@ public class FabrikChain {
      * @param length Length of the new segment
      */
     public void addSegment(double length) {
-        ChainSegment lastSegment = segments.get(segments.size() - 1);
-        Location endLocation = segmentLocations.get(segmentLocations.size() - 1).clone();
+        ensureCapacity(segmentCount + 1);
 
-        Vector direction = endLocation.clone().subtract(segmentLocations.get(segmentLocations.size() - 2)).toVector();
-        direction.normalize().multiply(length);
+        int end = segmentCount * 3;
+        double dx = 0;
+        double dy = 1;
+        double dz = 0;
+        if (segmentCount > 0) {
+            dx = joints[end] - joints[end - 3];
+            dy = joints[end + 1] - joints[end - 2];
+            dz = joints[end + 2] - joints[end - 1];
+            double directionLength = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (directionLength > 1e-12) {
+                dx /= directionLength;
+                dy /= directionLength;
+                dz /= directionLength;
+            }
+        }
 
-        Location newEndLocation = endLocation.clone().add(direction);
-        segmentLocations.add(newEndLocation);
+        joints[end + 3] = joints[end] + dx * length;
+        joints[end + 4] = joints[end + 1] + dy * length;
+        joints[end + 5] = joints[end + 2] + dz * length;
 
-        segmentLengths.add(length);
-        totalLength += length;
+        segmentEnds[end] = joints[end + 3];
+        segmentEnds[end + 1] = joints[end + 4];
+        segmentEnds[end + 2] = joints[end + 5];
 
-        ChainSegment newSegment = new ChainSegment(endLocation, newEndLocation, lastSegment);
-        segments.add(newSegment);
+        segmentLengths[segmentCount] = length;
+        segmentCount++;
+        totalLength += length;
+        locationsDirty = true;
+        modificationCount++;
 
-        this.targetLocation = newEndLocation.clone();
+        targetEnd();
     }
 
     /**
      * Removes the last segment from the chain.
      */
     public void removeLastSegment() {
-        if (segments.size() <= 1) {
+        if (segmentCount <= 1) {
             return; // but not like, the *last* segment!
         }
 
-        segments.remove(segments.size() - 1);
-        totalLength -= segmentLengths.get(segmentLengths.size() - 1);
-        segmentLengths.remove(segmentLengths.size() - 1);
-        segmentLocations.remove(segmentLocations.size() - 1);
+        segmentCount--;
+        totalLength -= segmentLengths[segmentCount];
+        locationsDirty = true;
+        modificationCount++;
+
+        targetEnd();
+    }
+
+    /**
+     * Grows or shrinks the chain to the given number of segments. Shrinking only drops the
+     * active count, growing extends the tip along its current direction with segments of the
+     * given length. Neither allocates while the count stays within the chain's capacity.
+     *
+     * @param count  The new segment count, at least 1
+     * @param length Length of any added segments
+     */
+    public void setSegmentCount(int count, double length) {
+        count = Math.max(1, count);
+
+        while (segmentCount < count) {
+            addSegment(length);
+        }
+
+        if (segmentCount > count) {
+            for (int i = count; i < segmentCount; i++) {
+                totalLength -= segmentLengths[i];
+            }
+            segmentCount = count;
+            locationsDirty = true;
+            modificationCount++;
+
+            targetEnd();
+        }
+    }
+
+    /**
+     * Changes the segment count by redistributing the joints evenly along the chain's current
+     * shape, instead of adding or removing segments at the tip. The root and tip stay put and
+     * every segment gets the given length, so the next solve only has to correct lengths rather
+     * than recover the whole shape. One pass over the old and new joints, no allocation within
+     * the chain's capacity.
+     *
+     * @param count         The new segment count, at least 1
+     * @param segmentLength Length of every segment afterward
+     */
+    public void resample(int count, double segmentLength) {
+        count = Math.max(1, count);
+        if (count == segmentCount) {
+            return;
+        }
+
+        ensureCapacity(count);
 
-        this.targetLocation = segmentLocations.get(segmentLocations.size() - 1).clone();
+        int oldCount = segmentCount;
+        System.arraycopy(joints, 0, resampleScratch, 0, (oldCount + 1) * 3);
+        if (ArcLengthResampler.resample(resampleScratch, oldCount, joints, count) == 0) {
+            // collapsed to a point, there's no shape to keep
+            setSegmentCount(count, segmentLength);
+            return;
+        }
+
+        totalLength = 0;
+        for (int i = 0; i < count; i++) {
+            segmentLengths[i] = segmentLength;
+            totalLength += segmentLength;
+        }
+        System.arraycopy(joints, 3, segmentEnds, 0, count * 3);
+
+        segmentCount = count;
+        locationsDirty = true;
+        modificationCount++;
+
+        targetEnd();
+    }
+
+    /**
+     * Gives every segment the same length without moving any joint. The next solve pulls the
+     * joints back to the new lengths.
+     *
+     * @param length Length of every segment
+     */
+    public void setSegmentLengths(double length) {
+        boolean changed = false;
+        totalLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            changed |= segmentLengths[i] != length;
+            segmentLengths[i] = length;
+            totalLength += length;
+        }
+
+        if (changed) {
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Gets the most segments the chain can hold without reallocating.
+     */
+    public int getCapacity() {
+        return segmentLengths.length;
+    }
+
+    /**
+     * Points the target at the current tip, in place.
+     */
+    private void targetEnd() {
+        int end = segmentCount * 3;
+        targetLocation.setWorld(startLocation.getWorld());
+        targetLocation.setX(joints[end]);
+        targetLocation.setY(joints[end + 1]);
+        targetLocation.setZ(joints[end + 2]);
+    }
+
+    private void ensureCapacity(int requiredSegments) {
+        if (requiredSegments > segmentLengths.length) {
+            // past the capacity the chain was created with, grow like a list
+            int newCapacity = Math.max(requiredSegments, segmentLengths.length * 2);
+            segmentLengths = Arrays.copyOf(segmentLengths, newCapacity);
+            joints = Arrays.copyOf(joints, (newCapacity + 1) * 3);
+            segmentEnds = Arrays.copyOf(segmentEnds, newCapacity * 3);
+            resampleScratch = new double[joints.length];
+            growSegmentArena(newCapacity);
+        }
+    }
+
+    private void growSegmentArena(int capacity) {
+        int oldCapacity = segmentArena.length;
+        if (capacity <= oldCapacity) {
+            return;
+        }
+
+        segmentArena = Arrays.copyOf(segmentArena, capacity);
+        World world = startLocation.getWorld();
+        for (int i = oldCapacity; i < capacity; i++) {
+            segmentArena[i] = new ChainSegment(world, i == 0 ? null : segmentArena[i - 1]);
+        }
+    }
+
+    double getRootX() {
+        return startLocation.getX();
+    }
+
+    double getRootY() {
+        return startLocation.getY();
+    }
+
+    double getRootZ() {
+        return startLocation.getZ();
+    }
+
+    double getTargetX() {
+        return targetLocation.getX();
+    }
+
+    double getTargetY() {
+        return targetLocation.getY();
+    }
+
+    double getTargetZ() {
+        return targetLocation.getZ();
+    }
+
+    double getPendingDeltaTime() {
+        return pendingDeltaTime;
+    }
+
+    /**
+     * Copies the joint buffer out into the ChainSegment views, in place.
+     */
+    private void syncLocations() {
+        World world = startLocation.getWorld();
+
+        // segments start at the solved joint and end wherever physics put them
+        for (int i = 0; i < segmentCount; i++) {
+            int j = i * 3;
+            segmentArena[i].set(world, joints[j], joints[j + 1], joints[j + 2],
+                    segmentEnds[j], segmentEnds[j + 1], segmentEnds[j + 2]);
+        }
+
+        locationsDirty = false;
     }
 
     /**
      * Represents a single segment in the IK chain.
      */
     public static class ChainSegment {
-        private Location startLocation;
-        private Location endLocation;
-        private Vector direction;
+        private final Location startLocation;
+        private final Location endLocation;
+        private final Vector direction;
         private double length;
-        private ChainSegment parent;
+        private final ChainSegment parent;
 
         /**
          * Creates a new segment.
          */
         public ChainSegment(Location startLocation, Location endLocation, ChainSegment parent) {
-            this.startLocation = startLocation.clone();
-            this.endLocation = endLocation.clone();
+            this(startLocation.getWorld(), parent);
+            updatePositions(startLocation, endLocation);
+        }
+
+        /**
+         * Creates an empty arena segment at the origin.
+         */
+        ChainSegment(World world, ChainSegment parent) {
+            this.startLocation = new Location(world, 0, 0, 0);
+            this.endLocation = new Location(world, 0, 0, 0);
+            this.direction = new Vector();
             this.parent = parent;
-            updateDirection();
         }
 
         /**
-         * Updates the segment's direction vector based on start and end locations.
+         * Moves the segment and recomputes its direction, reusing its own Location and Vector.
          */
-        private void updateDirection() {
-            this.direction = endLocation.clone().subtract(startLocation).toVector();
+        void set(World world, double startX, double startY, double startZ, double endX, double endY, double endZ) {
+            startLocation.setWorld(world);
+            startLocation.setX(startX);
+            startLocation.setY(startY);
+            startLocation.setZ(startZ);
+            endLocation.setWorld(world);
+            endLocation.setX(endX);
+            endLocation.setY(endY);
+            endLocation.setZ(endZ);
+
+            direction.setX(endX - startX);
+            direction.setY(endY - startY);
+            direction.setZ(endZ - startZ);
             this.length = direction.length();
             if (this.length > 0) {
                 this.direction.normalize();
@@ -250,9 +1015,7 @@ public class FabrikChain {
          * Updates the segment's positions.
          */
         public void updatePositions(Location start, Location end) {
-            this.startLocation = start.clone();
-            this.endLocation = end.clone();
-            updateDirection();
+            set(start.getWorld(), start.getX(), start.getY(), start.getZ(), end.getX(), end.getY(), end.getZ());
         }
 
         /**
@@ -269,11 +1032,42 @@ public class FabrikChain {
             return endLocation.clone();
         }
 
+        /**
+         * Copies the start location of this segment into the given location.
+         *
+         * @param into The location to overwrite
+         * @return into, for chaining
+         */
+        public Location getStartLocation(Location into) {
+            return copy(startLocation, into);
+        }
+
+        /**
+         * Copies the end location of this segment into the given location.
+         *
+         * @param into The location to overwrite
+         * @return into, for chaining
+         */
+        public Location getEndLocation(Location into) {
+            return copy(endLocation, into);
+        }
+
+        private static Location copy(Location from, Location into) {
+            into.setWorld(from.getWorld());
+            into.setX(from.getX());
+            into.setY(from.getY());
+            into.setZ(from.getZ());
+            return into;
+        }
+
         /**
          * Sets the end location of this segment.
          */
         public void setEndLocation(Location location) {
-            this.endLocation = location;
+            endLocation.setWorld(location.getWorld());
+            endLocation.setX(location.getX());
+            endLocation.setY(location.getY());
+            endLocation.setZ(location.getZ());
         }
 
         /**
@@ -283,6 +1077,19 @@ public class FabrikChain {
             return direction.clone();
         }
 
+        /**
+         * Copies the direction vector of this segment into the given vector.
+         *
+         * @param into The vector to overwrite
+         * @return into, for chaining
+         */
+        public Vector getDirection(Vector into) {
+            into.setX(direction.getX());
+            into.setY(direction.getY());
+            into.setZ(direction.getZ());
+            return into;
+        }
+
         /**
          * Gets the length of this segment.
          */
@@ -11,6 +11,17 @@ public class FabrikSolver {
     private final int maxIterations;
     private final double tolerance;
 
+    // joint cone constraint, each segment may bend at most this far from its parent's direction
+    private boolean coneConstrained;
+    private double coneCos;
+    private double coneSin;
+    private double clampedX, clampedY, clampedZ;
+
+    // telemetry for the most recent solve, only written by the thread that owns the solver's chain
+    private int lastIterations;
+    private double lastErrorSq;
+    private final SolveResult result = new SolveResult();
+
     /**
      * Creates a new FabrikSolver instance.
      *
@@ -74,6 +85,401 @@ public class FabrikSolver {
         return locationPool.subList(0, numJoints);
     }
 
+    /**
+     * Solves the IK chain in place over flat primitive buffers. Joints are stored as interleaved
+     * x/y/z triples starting at jointOffset, so joint i lives at jointOffset + i * 3. Nothing is
+     * allocated or boxed during the iterations.
+     *
+     * @param joints Joint buffer holding segmentCount + 1 joints
+     * @param jointOffset Index of the root joint's x component in the joint buffer
+     * @param segmentLengths Segment length buffer
+     * @param lengthOffset Index of the first segment length in the length buffer
+     * @param segmentCount Number of segments to solve
+     * @param rootX Root x
+     * @param rootY Root y
+     * @param rootZ Root z
+     * @param targetX Target x
+     * @param targetY Target y
+     * @param targetZ Target z
+     */
+    public void solve(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                      double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ) {
+        solve(joints, jointOffset, segmentLengths, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, false);
+    }
+
+    /**
+     * Solves the IK chain in place over flat primitive buffers, optionally continuing from the
+     * joint positions already in the buffer instead of restarting from a straight line.
+     * Warm starting only makes sense when the buffer holds last tick's solution and the root and
+     * target have moved a little since, the chain then converges in a couple of iterations.
+     *
+     * @param warmStart true to iterate from the current joint positions, false to straighten first
+     * @see #solve(double[], int, double[], int, int, double, double, double, double, double, double)
+     */
+    public void solve(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                      double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                      boolean warmStart) {
+        solve(joints, jointOffset, segmentLengths, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, warmStart, maxIterations);
+    }
+
+    /**
+     * Solves the IK chain in place over flat primitive buffers with a per-call iteration cap.
+     * The cap is clamped to [1, maxIterations]. Iterations used and the final error are
+     * available afterward through {@link #getLastIterations()} and {@link #getLastError()}.
+     *
+     * @param iterationLimit The iteration cap for this solve only
+     * @see #solve(double[], int, double[], int, int, double, double, double, double, double, double, boolean)
+     */
+    public void solve(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                      double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                      boolean warmStart, int iterationLimit) {
+        if (prepare(joints, jointOffset, segmentLengths, lengthOffset, segmentCount,
+                rootX, rootY, rootZ, targetX, targetY, targetZ, warmStart, result)) {
+            iterate(joints, jointOffset, segmentLengths, lengthOffset, segmentCount,
+                    rootX, rootY, rootZ, targetX, targetY, targetZ, iterationLimit, result);
+        }
+        recordResult(result.iterations, result.errorSq);
+    }
+
+    /**
+     * First half of a primitive buffer solve: resets the result and straightens the chain if it's
+     * cold or the target is out of reach. Leaves the solver's own telemetry alone, so it may run
+     * on another thread than the one reading it.
+     *
+     * @return true if the chain still needs iterating, false if the straight chain is the answer
+     */
+    boolean prepare(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                    double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                    boolean warmStart, SolveResult result) {
+        result.iterations = 0;
+        result.errorSq = 0;
+
+        if (joints == null || segmentLengths == null || segmentCount <= 0) {
+            return false;
+        }
+
+        double totalLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            totalLength += segmentLengths[lengthOffset + i];
+        }
+
+        double dx = targetX - rootX;
+        double dy = targetY - rootY;
+        double dz = targetZ - rootZ;
+        boolean outOfReach = dx * dx + dy * dy + dz * dz > totalLength * totalLength;
+
+        if (!warmStart || outOfReach) {
+            straighten(joints, jointOffset, segmentLengths, lengthOffset, segmentCount,
+                    rootX, rootY, rootZ, targetX, targetY, targetZ);
+        }
+
+        if (outOfReach) {
+            // the straight chain is the answer
+            int end = jointOffset + segmentCount * 3;
+            double ex = joints[end] - targetX;
+            double ey = joints[end + 1] - targetY;
+            double ez = joints[end + 2] - targetZ;
+            result.errorSq = ex * ex + ey * ey + ez * ez;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Second half of a primitive buffer solve: backward/forward passes until within tolerance
+     * or out of iterations. The iterations used and final error go to the result.
+     */
+    void iterate(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                 double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ,
+                 int iterationLimit, SolveResult result) {
+        int end = jointOffset + segmentCount * 3;
+        int limit = clampIterations(iterationLimit);
+        double errorSq = Double.MAX_VALUE;
+        int iteration = 0;
+
+        while (errorSq > tolerance && iteration < limit) {
+            backward(joints, jointOffset, segmentLengths, lengthOffset, segmentCount, targetX, targetY, targetZ);
+
+            forward(joints, jointOffset, segmentLengths, lengthOffset, segmentCount, rootX, rootY, rootZ);
+
+            double ex = joints[end] - targetX;
+            double ey = joints[end + 1] - targetY;
+            double ez = joints[end + 2] - targetZ;
+            errorSq = ex * ex + ey * ey + ez * ez;
+
+            iteration++;
+        }
+
+        result.iterations = iteration;
+        result.errorSq = errorSq;
+    }
+
+    /**
+     * Records the outcome of a solve as the solver's telemetry. Main thread only for a chain's
+     * solver, see {@link FabrikChain#commitSolve}.
+     */
+    void recordResult(int iterations, double errorSq) {
+        lastIterations = iterations;
+        lastErrorSq = errorSq;
+    }
+
+    int clampIterations(int iterationLimit) {
+        return Math.max(1, Math.min(maxIterations, iterationLimit));
+    }
+
+    /**
+     * Limits how far each segment may bend away from the direction of the segment before it.
+     * The limit is enforced inside the backward and forward passes, so the solver only ever
+     * produces joints that respect it. Angles of 180 degrees or more, or 0 or less, disable it.
+     *
+     * @param maxAngleDegrees The largest allowed angle between neighbouring segments
+     */
+    public void setMaxAngle(double maxAngleDegrees) {
+        coneConstrained = maxAngleDegrees > 0 && maxAngleDegrees < 180;
+        if (coneConstrained) {
+            double radians = Math.toRadians(maxAngleDegrees);
+            coneCos = Math.cos(radians);
+            coneSin = Math.sin(radians);
+        }
+    }
+
+    /**
+     * Gets whether a joint cone constraint is set, see {@link #setMaxAngle(double)}.
+     */
+    public boolean hasAngleConstraint() {
+        return coneConstrained;
+    }
+
+    /**
+     * Gets the cosine of the cone constraint's angle, only meaningful with {@link #hasAngleConstraint()}.
+     */
+    double getConeCos() {
+        return coneCos;
+    }
+
+    /**
+     * Gets the sine of the cone constraint's angle, only meaningful with {@link #hasAngleConstraint()}.
+     */
+    double getConeSin() {
+        return coneSin;
+    }
+
+    /**
+     * Gets the squared position tolerance.
+     */
+    double getToleranceSq() {
+        return tolerance;
+    }
+
+    /**
+     * Gets the number of iterations the most recent primitive buffer solve used.
+     * 0 means the target was out of reach and the chain was simply straightened.
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Gets the distance between the end effector and the target after the most recent primitive buffer solve.
+     */
+    public double getLastError() {
+        return Math.sqrt(lastErrorSq);
+    }
+
+    /**
+     * Gets whether the most recent primitive buffer solve ended within tolerance.
+     */
+    public boolean hasConverged() {
+        return lastErrorSq <= tolerance;
+    }
+
+    /**
+     * Gets the configured iteration cap.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Lays the joints out in a straight line from root toward target.
+     */
+    private void straighten(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                            double rootX, double rootY, double rootZ, double targetX, double targetY, double targetZ) {
+        double dx = targetX - rootX;
+        double dy = targetY - rootY;
+        double dz = targetZ - rootZ;
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length > 1e-9) {
+            dx /= length;
+            dy /= length;
+            dz /= length;
+        } else {
+            dx = 0;
+            dy = 1;
+            dz = 0;
+        }
+
+        joints[jointOffset] = rootX;
+        joints[jointOffset + 1] = rootY;
+        joints[jointOffset + 2] = rootZ;
+
+        double currentLength = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            currentLength += segmentLengths[lengthOffset + i];
+            int j = jointOffset + (i + 1) * 3;
+            joints[j] = rootX + dx * currentLength;
+            joints[j + 1] = rootY + dy * currentLength;
+            joints[j + 2] = rootZ + dz * currentLength;
+        }
+    }
+
+    /**
+     * Backward pass over a primitive joint buffer.
+     */
+    private void backward(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                          double targetX, double targetY, double targetZ) {
+        int end = jointOffset + segmentCount * 3;
+        joints[end] = targetX;
+        joints[end + 1] = targetY;
+        joints[end + 2] = targetZ;
+
+        // direction of the previously placed segment, walking from the tip
+        boolean hasParent = false;
+        double px = 0, py = 0, pz = 0;
+
+        for (int i = segmentCount - 1; i >= 0; i--) {
+            int current = jointOffset + i * 3;
+            int next = current + 3;
+
+            double dx = joints[current] - joints[next];
+            double dy = joints[current + 1] - joints[next + 1];
+            double dz = joints[current + 2] - joints[next + 2];
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (length < 1e-12) {
+                // a collapsed segment has no direction, the next one is held to the last real one
+                continue;
+            }
+
+            double segmentLength = segmentLengths[lengthOffset + i];
+
+            if (coneConstrained) {
+                dx /= length;
+                dy /= length;
+                dz /= length;
+                if (hasParent && clampToCone(dx, dy, dz, px, py, pz)) {
+                    dx = clampedX;
+                    dy = clampedY;
+                    dz = clampedZ;
+                }
+                px = dx;
+                py = dy;
+                pz = dz;
+                hasParent = true;
+                length = 1;
+            }
+
+            double scale = segmentLength / length;
+            joints[current] = joints[next] + dx * scale;
+            joints[current + 1] = joints[next + 1] + dy * scale;
+            joints[current + 2] = joints[next + 2] + dz * scale;
+        }
+    }
+
+    /**
+     * Forward pass over a primitive joint buffer.
+     */
+    private void forward(double[] joints, int jointOffset, double[] segmentLengths, int lengthOffset, int segmentCount,
+                         double rootX, double rootY, double rootZ) {
+        joints[jointOffset] = rootX;
+        joints[jointOffset + 1] = rootY;
+        joints[jointOffset + 2] = rootZ;
+
+        // direction of the previously placed segment, walking from the root
+        boolean hasParent = false;
+        double px = 0, py = 0, pz = 0;
+
+        for (int i = 0; i < segmentCount; i++) {
+            int current = jointOffset + i * 3;
+            int next = current + 3;
+
+            double dx = joints[next] - joints[current];
+            double dy = joints[next + 1] - joints[current + 1];
+            double dz = joints[next + 2] - joints[current + 2];
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (length < 1e-12) {
+                // a collapsed segment has no direction, the next one is held to the last real one
+                continue;
+            }
+
+            double segmentLength = segmentLengths[lengthOffset + i];
+
+            if (coneConstrained) {
+                dx /= length;
+                dy /= length;
+                dz /= length;
+                if (hasParent && clampToCone(dx, dy, dz, px, py, pz)) {
+                    dx = clampedX;
+                    dy = clampedY;
+                    dz = clampedZ;
+                }
+                px = dx;
+                py = dy;
+                pz = dz;
+                hasParent = true;
+                length = 1;
+            }
+
+            double scale = segmentLength / length;
+            joints[next] = joints[current] + dx * scale;
+            joints[next + 1] = joints[current + 1] + dy * scale;
+            joints[next + 2] = joints[current + 2] + dz * scale;
+        }
+    }
+
+    /**
+     * Clamps the unit direction d into the cone around the unit parent direction p. Inside the
+     * cone is a single dot product test, outside the direction is rotated onto the cone's edge
+     * within the plane of d and p using the precomputed cosine and sine.
+     *
+     * @return false if d was already inside the cone, true if the clamped direction was written
+     *         to clampedX/Y/Z
+     */
+    private boolean clampToCone(double dx, double dy, double dz, double px, double py, double pz) {
+        double dot = dx * px + dy * py + dz * pz;
+        if (dot >= coneCos) {
+            return false;
+        }
+
+        // part of d perpendicular to p
+        double ox = dx - px * dot;
+        double oy = dy - py * dot;
+        double oz = dz - pz * dot;
+        double orthogonalSq = ox * ox + oy * oy + oz * oz;
+
+        if (orthogonalSq < 1e-18) {
+            // d points straight back along p, any perpendicular will do
+            if (Math.abs(py) < 0.9) {
+                ox = -pz;
+                oy = 0;
+                oz = px;
+            } else {
+                ox = 0;
+                oy = pz;
+                oz = -py;
+            }
+            orthogonalSq = ox * ox + oy * oy + oz * oz;
+        }
+
+        double inverse = 1 / Math.sqrt(orthogonalSq);
+        clampedX = px * coneCos + ox * inverse * coneSin;
+        clampedY = py * coneCos + oy * inverse * coneSin;
+        clampedZ = pz * coneCos + oz * inverse * coneSin;
+        return true;
+    }
+
     /**
      * Initialize the chain as a straight line from root toward target
      */
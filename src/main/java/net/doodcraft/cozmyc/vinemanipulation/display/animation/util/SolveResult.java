@@ -0,0 +1,22 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+/**
+ * Outcome of one FabrikChain solve, kept apart from the chain while the solve runs. A batch
+ * holds one per slot, so a worker thread only ever writes here and the chain's own telemetry
+ * and warm start memory are updated from it on the main thread, see
+ * {@link FabrikChain#commitSolve}.
+ */
+final class SolveResult {
+
+    int iterationBudget;
+    boolean catenaryPlaced;
+    int iterations;
+    double errorSq;
+
+    void reset() {
+        iterationBudget = 0;
+        catenaryPlaced = false;
+        iterations = 0;
+        errorSq = 0;
+    }
+}
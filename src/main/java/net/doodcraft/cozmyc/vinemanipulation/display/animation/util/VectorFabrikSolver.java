@@ -0,0 +1,394 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Solves a group of FABRIK chains with the same segment count side by side, one chain per
+ * vector lane. The backward/forward passes are sequential along a chain, so the parallelism is
+ * across chains: joint j of every chain in the group is moved by the same vector operations.
+ * Joint cone constraints are applied per lane with the same dot product clamp as the scalar
+ * solver, so chains with different limits, or none, can share a group.
+ * <p>
+ * Only touched when the jdk.incubator.vector module is present, see
+ * {@link FabrikBatchSolver#isVectorApiAvailable()}. Not thread safe, use one per thread.
+ */
+final class VectorFabrikSolver {
+
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double EPSILON = 1e-12;
+    private static final double STRAIGHT_BACK_EPSILON = 1e-18;
+
+    private final int lanes = SPECIES.length();
+
+    // lane-major work buffers, component c of joint j in lane l is at (j * 3 + c) * lanes + l
+    private double[] joints = new double[0];
+    private double[] lengths = new double[0];
+
+    // per-lane parameters
+    private final double[] rootX = new double[lanes];
+    private final double[] rootY = new double[lanes];
+    private final double[] rootZ = new double[lanes];
+    private final double[] targetX = new double[lanes];
+    private final double[] targetY = new double[lanes];
+    private final double[] targetZ = new double[lanes];
+    private final double[] toleranceSq = new double[lanes];
+    private final double[] limits = new double[lanes];
+    private final double[] iterations = new double[lanes];
+    private final double[] errorsSq = new double[lanes];
+    private final boolean[] coneConstrained = new boolean[lanes];
+    private final double[] coneCos = new double[lanes];
+    private final double[] coneSin = new double[lanes];
+    private final double[] clamped = new double[3 * lanes];
+
+    /**
+     * Gets how many chains one call to {@link #solve} can take.
+     */
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Iterates up to {@link #lanes()} chains with the given segment count in one go. Chains are
+     * read from and written back to the packed AoS buffers of a batch. Every chain must already
+     * be prepared, and lanes stop iterating independently once they converge or hit their limit.
+     *
+     * @param packedJoints   Packed joint buffer
+     * @param jointOffsets   Joint offset per chain
+     * @param packedLengths  Packed segment length buffer
+     * @param lengthOffsets  Length offset per chain
+     * @param snapshots      Root xyz, target xyz, delta time per chain, stride 7
+     * @param budgets        Iteration limit per chain
+     * @param results        Result per slot, receives the iterations used and final error
+     * @param chains         Chain per slot, used for tolerance and the cone constraint
+     * @param slots          Slot indices, the group is slots[from .. from + count)
+     * @param from           First entry in slots
+     * @param count          Number of chains in the group, at most lanes()
+     * @param segmentCount   Segment count shared by every chain in the group
+     */
+    void solve(double[] packedJoints, int[] jointOffsets, double[] packedLengths, int[] lengthOffsets,
+               double[] snapshots, int[] budgets, SolveResult[] results, FabrikChain[] chains,
+               int[] slots, int from, int count, int segmentCount) {
+        int components = (segmentCount + 1) * 3;
+        ensureCapacity(components, segmentCount);
+
+        // transpose in, padding lanes are zeroed and never active
+        for (int lane = 0; lane < lanes; lane++) {
+            if (lane >= count) {
+                for (int c = 0; c < components; c++) {
+                    joints[c * lanes + lane] = 0;
+                }
+                for (int i = 0; i < segmentCount; i++) {
+                    lengths[i * lanes + lane] = 0;
+                }
+                limits[lane] = 0;
+                toleranceSq[lane] = 0;
+                coneConstrained[lane] = false;
+                coneCos[lane] = coneSin[lane] = 0;
+                rootX[lane] = rootY[lane] = rootZ[lane] = 0;
+                targetX[lane] = targetY[lane] = targetZ[lane] = 0;
+                continue;
+            }
+
+            int slot = slots[from + lane];
+            int jointOffset = jointOffsets[slot];
+            int lengthOffset = lengthOffsets[slot];
+            for (int c = 0; c < components; c++) {
+                joints[c * lanes + lane] = packedJoints[jointOffset + c];
+            }
+            for (int i = 0; i < segmentCount; i++) {
+                lengths[i * lanes + lane] = packedLengths[lengthOffset + i];
+            }
+
+            int s = slot * 7;
+            rootX[lane] = snapshots[s];
+            rootY[lane] = snapshots[s + 1];
+            rootZ[lane] = snapshots[s + 2];
+            targetX[lane] = snapshots[s + 3];
+            targetY[lane] = snapshots[s + 4];
+            targetZ[lane] = snapshots[s + 5];
+            limits[lane] = budgets[slot];
+
+            FabrikSolver solver = chains[slot].getSolver();
+            toleranceSq[lane] = solver.getToleranceSq();
+            coneConstrained[lane] = solver.hasAngleConstraint();
+            coneCos[lane] = solver.getConeCos();
+            coneSin[lane] = solver.getConeSin();
+        }
+
+        iterate(segmentCount);
+
+        // transpose out and record each lane's result in its slot
+        for (int lane = 0; lane < count; lane++) {
+            int slot = slots[from + lane];
+            int jointOffset = jointOffsets[slot];
+            for (int c = 0; c < components; c++) {
+                packedJoints[jointOffset + c] = joints[c * lanes + lane];
+            }
+            results[slot].iterations = (int) iterations[lane];
+            results[slot].errorSq = errorsSq[lane];
+        }
+    }
+
+    private void iterate(int segmentCount) {
+        DoubleVector rx = DoubleVector.fromArray(SPECIES, rootX, 0);
+        DoubleVector ry = DoubleVector.fromArray(SPECIES, rootY, 0);
+        DoubleVector rz = DoubleVector.fromArray(SPECIES, rootZ, 0);
+        DoubleVector tx = DoubleVector.fromArray(SPECIES, targetX, 0);
+        DoubleVector ty = DoubleVector.fromArray(SPECIES, targetY, 0);
+        DoubleVector tz = DoubleVector.fromArray(SPECIES, targetZ, 0);
+        DoubleVector tolerance = DoubleVector.fromArray(SPECIES, toleranceSq, 0);
+        DoubleVector limit = DoubleVector.fromArray(SPECIES, limits, 0);
+        VectorMask<Double> constrained = VectorMask.fromArray(SPECIES, coneConstrained, 0);
+        DoubleVector cos = DoubleVector.fromArray(SPECIES, coneCos, 0);
+        DoubleVector sin = DoubleVector.fromArray(SPECIES, coneSin, 0);
+
+        DoubleVector iteration = DoubleVector.zero(SPECIES);
+        DoubleVector errorSq = DoubleVector.broadcast(SPECIES, Double.MAX_VALUE);
+        VectorMask<Double> active = limit.compare(VectorOperators.GT, 0);
+
+        int end = segmentCount * 3 * lanes;
+
+        while (active.anyTrue()) {
+            backward(segmentCount, tx, ty, tz, active, constrained, cos, sin);
+            forward(segmentCount, rx, ry, rz, active, constrained, cos, sin);
+
+            DoubleVector ex = DoubleVector.fromArray(SPECIES, joints, end).sub(tx);
+            DoubleVector ey = DoubleVector.fromArray(SPECIES, joints, end + lanes).sub(ty);
+            DoubleVector ez = DoubleVector.fromArray(SPECIES, joints, end + 2 * lanes).sub(tz);
+            DoubleVector laneErrorSq = ex.mul(ex).add(ey.mul(ey)).add(ez.mul(ez));
+
+            errorSq = errorSq.blend(laneErrorSq, active);
+            iteration = iteration.add(1.0, active);
+
+            active = active
+                    .andNot(errorSq.compare(VectorOperators.LE, tolerance))
+                    .and(iteration.compare(VectorOperators.LT, limit));
+        }
+
+        iteration.intoArray(iterations, 0);
+        errorSq.intoArray(errorsSq, 0);
+    }
+
+    private void backward(int segmentCount, DoubleVector tx, DoubleVector ty, DoubleVector tz, VectorMask<Double> active,
+                          VectorMask<Double> constrained, DoubleVector cos, DoubleVector sin) {
+        int end = segmentCount * 3 * lanes;
+        DoubleVector nx = DoubleVector.fromArray(SPECIES, joints, end).blend(tx, active);
+        DoubleVector ny = DoubleVector.fromArray(SPECIES, joints, end + lanes).blend(ty, active);
+        DoubleVector nz = DoubleVector.fromArray(SPECIES, joints, end + 2 * lanes).blend(tz, active);
+        nx.intoArray(joints, end);
+        ny.intoArray(joints, end + lanes);
+        nz.intoArray(joints, end + 2 * lanes);
+
+        // direction of the previously placed segment per lane, walking from the tip
+        boolean anyConstrained = constrained.anyTrue();
+        boolean allConstrained = constrained.allTrue();
+        VectorMask<Double> hasParent = SPECIES.maskAll(false);
+        DoubleVector px = DoubleVector.zero(SPECIES);
+        DoubleVector py = px;
+        DoubleVector pz = px;
+
+        for (int i = segmentCount - 1; i >= 0; i--) {
+            int current = i * 3 * lanes;
+
+            DoubleVector cx = DoubleVector.fromArray(SPECIES, joints, current);
+            DoubleVector cy = DoubleVector.fromArray(SPECIES, joints, current + lanes);
+            DoubleVector cz = DoubleVector.fromArray(SPECIES, joints, current + 2 * lanes);
+
+            DoubleVector dx = cx.sub(nx);
+            DoubleVector dy = cy.sub(ny);
+            DoubleVector dz = cz.sub(nz);
+            DoubleVector length = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).sqrt();
+            VectorMask<Double> valid = length.compare(VectorOperators.GT, EPSILON);
+            VectorMask<Double> move = active.and(valid);
+
+            DoubleVector segmentLength = DoubleVector.fromArray(SPECIES, lengths, i * lanes);
+            DoubleVector mx;
+            DoubleVector my;
+            DoubleVector mz;
+
+            if (!anyConstrained) {
+                DoubleVector scale = segmentLength.div(length);
+                mx = dx.mul(scale);
+                my = dy.mul(scale);
+                mz = dz.mul(scale);
+            } else {
+                DoubleVector ux = dx.div(length);
+                DoubleVector uy = dy.div(length);
+                DoubleVector uz = dz.div(length);
+                VectorMask<Double> clamp = constrained.and(move).and(hasParent);
+                if (clamp.anyTrue()) {
+                    DoubleVector dot = ux.mul(px).add(uy.mul(py)).add(uz.mul(pz));
+                    clamp = clamp.and(dot.compare(VectorOperators.LT, cos));
+                    if (clamp.anyTrue()) {
+                        clampToCone(ux, uy, uz, px, py, pz, dot, cos, sin, clamp);
+                        ux = ux.blend(DoubleVector.fromArray(SPECIES, clamped, 0), clamp);
+                        uy = uy.blend(DoubleVector.fromArray(SPECIES, clamped, lanes), clamp);
+                        uz = uz.blend(DoubleVector.fromArray(SPECIES, clamped, 2 * lanes), clamp);
+                    }
+                }
+
+                // constrained lanes move along the unit direction, the others scale as usual
+                mx = ux.mul(segmentLength);
+                my = uy.mul(segmentLength);
+                mz = uz.mul(segmentLength);
+                if (!allConstrained) {
+                    DoubleVector scale = segmentLength.div(length);
+                    mx = dx.mul(scale).blend(mx, constrained);
+                    my = dy.mul(scale).blend(my, constrained);
+                    mz = dz.mul(scale).blend(mz, constrained);
+                }
+                px = px.blend(ux, move);
+                py = py.blend(uy, move);
+                pz = pz.blend(uz, move);
+                // lanes skipping a collapsed segment keep the last real direction as the parent
+                hasParent = hasParent.or(move);
+            }
+
+            cx = cx.blend(nx.add(mx), move);
+            cy = cy.blend(ny.add(my), move);
+            cz = cz.blend(nz.add(mz), move);
+
+            cx.intoArray(joints, current);
+            cy.intoArray(joints, current + lanes);
+            cz.intoArray(joints, current + 2 * lanes);
+
+            nx = cx;
+            ny = cy;
+            nz = cz;
+        }
+    }
+
+    private void forward(int segmentCount, DoubleVector rx, DoubleVector ry, DoubleVector rz, VectorMask<Double> active,
+                         VectorMask<Double> constrained, DoubleVector cos, DoubleVector sin) {
+        DoubleVector cx = DoubleVector.fromArray(SPECIES, joints, 0).blend(rx, active);
+        DoubleVector cy = DoubleVector.fromArray(SPECIES, joints, lanes).blend(ry, active);
+        DoubleVector cz = DoubleVector.fromArray(SPECIES, joints, 2 * lanes).blend(rz, active);
+        cx.intoArray(joints, 0);
+        cy.intoArray(joints, lanes);
+        cz.intoArray(joints, 2 * lanes);
+
+        // direction of the previously placed segment per lane, walking from the root
+        boolean anyConstrained = constrained.anyTrue();
+        boolean allConstrained = constrained.allTrue();
+        VectorMask<Double> hasParent = SPECIES.maskAll(false);
+        DoubleVector px = DoubleVector.zero(SPECIES);
+        DoubleVector py = px;
+        DoubleVector pz = px;
+
+        for (int i = 0; i < segmentCount; i++) {
+            int next = (i + 1) * 3 * lanes;
+
+            DoubleVector nx = DoubleVector.fromArray(SPECIES, joints, next);
+            DoubleVector ny = DoubleVector.fromArray(SPECIES, joints, next + lanes);
+            DoubleVector nz = DoubleVector.fromArray(SPECIES, joints, next + 2 * lanes);
+
+            DoubleVector dx = nx.sub(cx);
+            DoubleVector dy = ny.sub(cy);
+            DoubleVector dz = nz.sub(cz);
+            DoubleVector length = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).sqrt();
+            VectorMask<Double> valid = length.compare(VectorOperators.GT, EPSILON);
+            VectorMask<Double> move = active.and(valid);
+
+            DoubleVector segmentLength = DoubleVector.fromArray(SPECIES, lengths, i * lanes);
+            DoubleVector mx;
+            DoubleVector my;
+            DoubleVector mz;
+
+            if (!anyConstrained) {
+                DoubleVector scale = segmentLength.div(length);
+                mx = dx.mul(scale);
+                my = dy.mul(scale);
+                mz = dz.mul(scale);
+            } else {
+                DoubleVector ux = dx.div(length);
+                DoubleVector uy = dy.div(length);
+                DoubleVector uz = dz.div(length);
+                VectorMask<Double> clamp = constrained.and(move).and(hasParent);
+                if (clamp.anyTrue()) {
+                    DoubleVector dot = ux.mul(px).add(uy.mul(py)).add(uz.mul(pz));
+                    clamp = clamp.and(dot.compare(VectorOperators.LT, cos));
+                    if (clamp.anyTrue()) {
+                        clampToCone(ux, uy, uz, px, py, pz, dot, cos, sin, clamp);
+                        ux = ux.blend(DoubleVector.fromArray(SPECIES, clamped, 0), clamp);
+                        uy = uy.blend(DoubleVector.fromArray(SPECIES, clamped, lanes), clamp);
+                        uz = uz.blend(DoubleVector.fromArray(SPECIES, clamped, 2 * lanes), clamp);
+                    }
+                }
+
+                // constrained lanes move along the unit direction, the others scale as usual
+                mx = ux.mul(segmentLength);
+                my = uy.mul(segmentLength);
+                mz = uz.mul(segmentLength);
+                if (!allConstrained) {
+                    DoubleVector scale = segmentLength.div(length);
+                    mx = dx.mul(scale).blend(mx, constrained);
+                    my = dy.mul(scale).blend(my, constrained);
+                    mz = dz.mul(scale).blend(mz, constrained);
+                }
+                px = px.blend(ux, move);
+                py = py.blend(uy, move);
+                pz = pz.blend(uz, move);
+                // lanes skipping a collapsed segment keep the last real direction as the parent
+                hasParent = hasParent.or(move);
+            }
+
+            nx = nx.blend(cx.add(mx), move);
+            ny = ny.blend(cy.add(my), move);
+            nz = nz.blend(cz.add(mz), move);
+
+            nx.intoArray(joints, next);
+            ny.intoArray(joints, next + lanes);
+            nz.intoArray(joints, next + 2 * lanes);
+
+            cx = nx;
+            cy = ny;
+            cz = nz;
+        }
+    }
+
+    /**
+     * Lane-wise version of the scalar solver's cone clamp: rotates each unit direction u that
+     * lies outside its lane's cone around the unit parent direction p onto the cone's edge,
+     * within the plane of u and p. The clamped x, y and z are written to the clamped scratch
+     * buffer, lane-major. Only the lanes in clamp are meaningful there.
+     */
+    private void clampToCone(DoubleVector ux, DoubleVector uy, DoubleVector uz,
+                                              DoubleVector px, DoubleVector py, DoubleVector pz,
+                                              DoubleVector dot, DoubleVector cos, DoubleVector sin,
+                                              VectorMask<Double> clamp) {
+        // part of u perpendicular to p
+        DoubleVector ox = ux.sub(px.mul(dot));
+        DoubleVector oy = uy.sub(py.mul(dot));
+        DoubleVector oz = uz.sub(pz.mul(dot));
+        DoubleVector orthogonalSq = ox.mul(ox).add(oy.mul(oy)).add(oz.mul(oz));
+
+        VectorMask<Double> straightBack = clamp.and(orthogonalSq.compare(VectorOperators.LT, STRAIGHT_BACK_EPSILON));
+        if (straightBack.anyTrue()) {
+            // u points straight back along p, any perpendicular will do
+            DoubleVector zero = DoubleVector.zero(SPECIES);
+            VectorMask<Double> lowY = py.abs().compare(VectorOperators.LT, 0.9);
+            ox = ox.blend(zero.blend(pz.neg(), lowY), straightBack);
+            oy = oy.blend(pz.blend(zero, lowY), straightBack);
+            oz = oz.blend(py.neg().blend(px, lowY), straightBack);
+            orthogonalSq = ox.mul(ox).add(oy.mul(oy)).add(oz.mul(oz));
+        }
+
+        DoubleVector inverse = DoubleVector.broadcast(SPECIES, 1.0).div(orthogonalSq.sqrt());
+        px.mul(cos).add(ox.mul(inverse).mul(sin)).intoArray(clamped, 0);
+        py.mul(cos).add(oy.mul(inverse).mul(sin)).intoArray(clamped, lanes);
+        pz.mul(cos).add(oz.mul(inverse).mul(sin)).intoArray(clamped, 2 * lanes);
+    }
+
+    private void ensureCapacity(int components, int segmentCount) {
+        if (joints.length < components * lanes) {
+            joints = new double[components * lanes];
+        }
+        if (lengths.length < segmentCount * lanes) {
+            lengths = new double[segmentCount * lanes];
+        }
+    }
+}
@@ -3,6 +3,7 @@ package net.doodcraft.cozmyc.vinemanipulation.display.managed;
 import com.projectkorra.projectkorra.ability.Ability;
 import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
 import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.BlockDisplay;
 
 import java.util.UUID;
@@ -13,9 +14,13 @@ public class ManagedBlockDisplay extends ManagedDisplay {
         super(entityUUID, owner, displayManager);
     }
 
+    public ManagedBlockDisplay(BlockDisplay entity, Ability owner, DisplayManager displayManager) {
+        super(entity, owner, displayManager);
+    }
+
     /** Gets the underlying Bukkit BlockDisplay entity, if valid. */
     public BlockDisplay getBukkitEntity() {
-        return displayManager.getValidBukkitEntity(entityUUID, BlockDisplay.class);
+        return getEntity(BlockDisplay.class);
     }
 
     /**
@@ -39,4 +44,34 @@ public class ManagedBlockDisplay extends ManagedDisplay {
         BlockDisplay entity = getBukkitEntity();
         return (entity != null) ? entity.getBlock() : null;
     }
+
+    @Override
+    public BlockUpdate beginUpdate() {
+        return new BlockUpdate(this);
+    }
+
+    /**
+     * Property changes for a block display, see {@link ManagedDisplay#beginUpdate()}.
+     */
+    public static class BlockUpdate extends Update {
+
+        private BlockData blockData;
+
+        protected BlockUpdate(ManagedBlockDisplay display) {
+            super(display);
+        }
+
+        public void setBlockData(BlockData blockData) {
+            this.blockData = blockData;
+        }
+
+        @Override
+        protected void applyTo(Display entity) {
+            super.applyTo(entity);
+            BlockDisplay blockDisplay = (BlockDisplay) entity;
+            if (blockData != null) {
+                blockDisplay.setBlock(blockData);
+            }
+        }
+    }
 }
\ No newline at end of file
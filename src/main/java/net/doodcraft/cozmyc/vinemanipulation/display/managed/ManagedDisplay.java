@@ -18,12 +18,30 @@ public abstract class ManagedDisplay {
     protected final Ability owner;
     protected final DisplayManager displayManager;
 
+    // resolved once and dropped for good when the entity is removed or unloaded
+    private Display entity;
+    private boolean released;
+
+    // last state sent through the setters below, so callers can skip resending what hasn't changed
+    private double sentX = Double.NaN;
+    private double sentY = Double.NaN;
+    private double sentZ = Double.NaN;
+    private final Quaternionf sentRightRotation = new Quaternionf();
+    private boolean transformationSent;
+    private int sentBlockLight = -1;
+    private int sentSkyLight = -1;
+
     protected ManagedDisplay(UUID entityUUID, Ability owner, DisplayManager displayManager) {
         this.entityUUID = entityUUID;
         this.owner = owner;
         this.displayManager = displayManager;
     }
 
+    protected ManagedDisplay(Display entity, Ability owner, DisplayManager displayManager) {
+        this(entity.getUniqueId(), owner, displayManager);
+        this.entity = entity;
+    }
+
     /** @return The UUID of the underlying Bukkit Display entity. */
     public UUID getEntityId() {
         return entityUUID;
@@ -41,17 +59,62 @@ public abstract class ManagedDisplay {
 
     /**
      * Checks if the underlying Bukkit entity is still valid (exists and not dead).
-     * Safe to call asynchronously.
+     * Must be called on the main thread, since it reads the cached handle and may look the entity up.
      * @return true if the entity is valid, false otherwise.
      */
     public boolean isValid() {
-        Entity entity = Bukkit.getEntity(entityUUID);
-        return entity instanceof Display && entity.isValid();
+        displayManager.verifyMainThread();
+        Display cached = this.entity;
+        if (cached != null) {
+            return cached.isValid();
+        }
+        if (released) {
+            return false;
+        }
+        Entity found = Bukkit.getEntity(entityUUID);
+        return found instanceof Display && found.isValid();
+    }
+
+    /**
+     * Drops the cached entity handle for good, so nothing keeps a removed or unloaded entity alive.
+     * Called by the DisplayManager when it despawns the entity or its chunk unloads.
+     */
+    public void invalidate() {
+        this.entity = null;
+        this.released = true;
+    }
+
+    /**
+     * Gets the underlying entity if it is still valid and of the given type. The handle is
+     * resolved by UUID at most once and validated with a field check after that.
+     * Must be called from the main thread.
+     * @return The entity, or null if it is gone or of another type.
+     */
+    protected <T extends Display> T getEntity(Class<T> type) {
+        displayManager.verifyMainThread();
+        Display cached = this.entity;
+        if (cached == null) {
+            if (released) {
+                return null;
+            }
+            cached = displayManager.getValidBukkitEntity(entityUUID, Display.class);
+            if (cached == null) {
+                released = true;
+                return null;
+            }
+            this.entity = cached;
+        } else if (!cached.isValid()) {
+            // removed by something that didn't tell us
+            invalidate();
+            return null;
+        }
+        return type.isInstance(cached) ? type.cast(cached) : null;
     }
 
     /**
      * Requests the removal of this display entity via the DisplayManager.
-     * Safe to call asynchronously; actual removal happens on the main thread.
+     * Safe to call asynchronously; actual removal happens on the main thread. Does nothing once
+     * this wrapper has been removed, even if its pooled entity now belongs to another wrapper.
      */
     public void remove() {
         displayManager.removeDisplay(this);
@@ -64,7 +127,48 @@ public abstract class ManagedDisplay {
      * @return The Bukkit Display entity or null.
      */
     public Display getBukkitEntity() {
-        return displayManager.getValidBukkitEntity(entityUUID, Display.class);
+        return getEntity(Display.class);
+    }
+
+    /**
+     * Checks whether a position is far enough from the last one sent with {@link #teleport} to be worth sending.
+     * @param threshold Distance below which the move is skipped.
+     * @return true if nothing was sent yet or the position moved more than threshold.
+     */
+    public boolean needsTeleport(double x, double y, double z, double threshold) {
+        if (Double.isNaN(sentX)) {
+            return true;
+        }
+        double dx = x - sentX;
+        double dy = y - sentY;
+        double dz = z - sentZ;
+        return dx * dx + dy * dy + dz * dz > threshold * threshold;
+    }
+
+    /**
+     * Checks whether a right rotation has turned far enough from the last one sent with
+     * {@link #setTransformation} to be worth sending.
+     * @param angleThreshold Angle in radians below which the turn is skipped.
+     * @return true if nothing was sent yet or the rotation turned more than angleThreshold.
+     */
+    public boolean needsRightRotation(Quaternionf rightRotation, double angleThreshold) {
+        if (!transformationSent) {
+            return true;
+        }
+        // the angle between two unit quaternions q and r is 2 * acos(|q . r|)
+        double dot = Math.abs(sentRightRotation.dot(rightRotation));
+        return dot < Math.cos(angleThreshold * 0.5);
+    }
+
+    /**
+     * Checks whether light levels differ enough from the last brightness sent with {@link #setBrightness} to be worth sending.
+     * @param threshold Smallest change in either level that is sent.
+     * @return true if nothing was sent yet or either level changed by at least threshold.
+     */
+    public boolean needsBrightness(int blockLight, int skyLight, int threshold) {
+        return sentBlockLight < 0
+                || Math.abs(blockLight - sentBlockLight) >= threshold
+                || Math.abs(skyLight - sentSkyLight) >= threshold;
     }
 
     public void teleport(Location location) {
@@ -72,6 +176,17 @@ public abstract class ManagedDisplay {
         Display entity = getBukkitEntity();
         if (entity != null) {
             entity.teleport(location);
+            sentX = location.getX();
+            sentY = location.getY();
+            sentZ = location.getZ();
+        }
+    }
+
+    public void setTeleportDuration(int ticks) {
+        displayManager.verifyMainThread();
+        Display entity = getBukkitEntity();
+        if (entity != null) {
+            entity.setTeleportDuration(ticks);
         }
     }
 
@@ -80,6 +195,8 @@ public abstract class ManagedDisplay {
         Display entity = getBukkitEntity();
         if (entity != null) {
             entity.setTransformation(transformation);
+            sentRightRotation.set(transformation.getRightRotation());
+            transformationSent = true;
         }
     }
 
@@ -90,48 +207,23 @@ public abstract class ManagedDisplay {
     }
 
     public void setScale(Vector3f scale) {
-        displayManager.verifyMainThread();
-        Display entity = getBukkitEntity();
-        if (entity != null) {
-            Transformation current = entity.getTransformation();
-            entity.setTransformation(new Transformation(
-                    current.getTranslation(),
-                    current.getLeftRotation(),
-                    scale, // New scale
-                    current.getRightRotation()
-            ));
-        }
+        Update update = beginUpdate();
+        update.setScale(scale);
+        update.apply();
     }
 
     public void setLeftRotation(Quaternionf rotation) {
-        displayManager.verifyMainThread();
-        Display entity = getBukkitEntity();
-        if (entity != null) {
-            Transformation current = entity.getTransformation();
-            entity.setTransformation(new Transformation(
-                    current.getTranslation(),
-                    rotation,
-                    current.getScale(),
-                    current.getRightRotation()
-            ));
-        }
+        Update update = beginUpdate();
+        update.setLeftRotation(rotation);
+        update.apply();
     }
 
     public void setRightRotation(Quaternionf rotation) {
-        displayManager.verifyMainThread();
-        Display entity = getBukkitEntity();
-        if (entity != null) {
-            Transformation current = entity.getTransformation();
-            entity.setTransformation(new Transformation(
-                    current.getTranslation(),
-                    current.getLeftRotation(),
-                    current.getScale(),
-                    rotation
-            ));
-        }
+        Update update = beginUpdate();
+        update.setRightRotation(rotation);
+        update.apply();
     }
 
-
     public void setInterpolationDelay(int ticks) {
         displayManager.verifyMainThread();
         Display entity = getBukkitEntity();
@@ -161,6 +253,8 @@ public abstract class ManagedDisplay {
         Display entity = getBukkitEntity();
         if (entity != null) {
             entity.setBrightness(brightness);
+            sentBlockLight = brightness != null ? brightness.getBlockLight() : -1;
+            sentSkyLight = brightness != null ? brightness.getSkyLight() : -1;
         }
     }
 
@@ -172,5 +266,152 @@ public abstract class ManagedDisplay {
         }
     }
 
+    /**
+     * Starts a batch of property changes that {@link Update#apply()} writes together, with one
+     * entity resolve and one main thread check. Transformation parts are merged into a single
+     * Transformation write, and only the properties that were set are touched.
+     * @return A new, empty update for this display.
+     */
+    public Update beginUpdate() {
+        return new Update(this);
+    }
+
     // add more wrappers for other methods, like width/height, glowing/color, etc
+
+    /**
+     * Property changes gathered for one display, see {@link #beginUpdate()}. Not thread safe;
+     * gather and apply on the main thread.
+     */
+    public static class Update {
+
+        // which of the primitive properties were set, so setting one doesn't box it
+        private static final int BRIGHTNESS = 1;
+        private static final int INTERPOLATION_DELAY = 1 << 1;
+        private static final int INTERPOLATION_DURATION = 1 << 2;
+        private static final int TELEPORT_DURATION = 1 << 3;
+        private static final int VIEW_RANGE = 1 << 4;
+
+        private final ManagedDisplay display;
+
+        private Transformation transformation;
+        private Vector3f translation;
+        private Quaternionf leftRotation;
+        private Vector3f scale;
+        private Quaternionf rightRotation;
+        private Display.Brightness brightness;
+        private int interpolationDelay;
+        private int interpolationDuration;
+        private int teleportDuration;
+        private float viewRange;
+        private Display.Billboard billboard;
+        private int changed;
+
+        protected Update(ManagedDisplay display) {
+            this.display = display;
+        }
+
+        /** Replaces the whole transformation. Parts set separately still override it. */
+        public void setTransformation(Transformation transformation) {
+            this.transformation = transformation;
+        }
+
+        public void setTranslation(Vector3f translation) {
+            this.translation = translation;
+        }
+
+        public void setLeftRotation(Quaternionf leftRotation) {
+            this.leftRotation = leftRotation;
+        }
+
+        public void setScale(Vector3f scale) {
+            this.scale = scale;
+        }
+
+        public void setRightRotation(Quaternionf rightRotation) {
+            this.rightRotation = rightRotation;
+        }
+
+        public void setBrightness(Display.Brightness brightness) {
+            this.brightness = brightness;
+            this.changed |= BRIGHTNESS;
+        }
+
+        public void setInterpolationDelay(int ticks) {
+            this.interpolationDelay = ticks;
+            this.changed |= INTERPOLATION_DELAY;
+        }
+
+        public void setInterpolationDuration(int ticks) {
+            this.interpolationDuration = ticks;
+            this.changed |= INTERPOLATION_DURATION;
+        }
+
+        public void setTeleportDuration(int ticks) {
+            this.teleportDuration = ticks;
+            this.changed |= TELEPORT_DURATION;
+        }
+
+        public void setViewRange(float range) {
+            this.viewRange = range;
+            this.changed |= VIEW_RANGE;
+        }
+
+        public void setBillboard(Display.Billboard billboard) {
+            this.billboard = billboard;
+        }
+
+        /**
+         * Writes the gathered changes to the entity. Does nothing if it is no longer valid.
+         * Must be called from the main thread.
+         */
+        public void apply() {
+            display.displayManager.verifyMainThread();
+            Display entity = display.getBukkitEntity();
+            if (entity != null) {
+                applyTo(entity);
+            }
+        }
+
+        /**
+         * Writes the gathered changes to an entity already resolved by {@link #apply()}.
+         * Subclasses add their own properties after calling this.
+         */
+        protected void applyTo(Display entity) {
+            if (transformation != null || translation != null || leftRotation != null || scale != null || rightRotation != null) {
+                Transformation written = transformation;
+                if (written == null || translation != null || leftRotation != null || scale != null || rightRotation != null) {
+                    Transformation base = transformation != null ? transformation : entity.getTransformation();
+                    written = new Transformation(
+                            translation != null ? translation : base.getTranslation(),
+                            leftRotation != null ? leftRotation : base.getLeftRotation(),
+                            scale != null ? scale : base.getScale(),
+                            rightRotation != null ? rightRotation : base.getRightRotation()
+                    );
+                }
+                entity.setTransformation(written);
+                display.sentRightRotation.set(rightRotation != null ? rightRotation : written.getRightRotation());
+                display.transformationSent = true;
+            }
+            if ((changed & BRIGHTNESS) != 0) {
+                entity.setBrightness(brightness);
+                display.sentBlockLight = brightness != null ? brightness.getBlockLight() : -1;
+                display.sentSkyLight = brightness != null ? brightness.getSkyLight() : -1;
+            }
+            if ((changed & INTERPOLATION_DELAY) != 0) {
+                entity.setInterpolationDelay(interpolationDelay);
+            }
+            if ((changed & INTERPOLATION_DURATION) != 0) {
+                entity.setInterpolationDuration(interpolationDuration);
+            }
+            if ((changed & TELEPORT_DURATION) != 0) {
+                entity.setTeleportDuration(teleportDuration);
+            }
+            if ((changed & VIEW_RANGE) != 0) {
+                entity.setViewRange(viewRange);
+            }
+            if (billboard != null) {
+                entity.setBillboard(billboard);
+            }
+        }
+    }
 }
\ No newline at end of file
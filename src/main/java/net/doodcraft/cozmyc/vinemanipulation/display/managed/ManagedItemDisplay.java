@@ -2,6 +2,7 @@ package net.doodcraft.cozmyc.vinemanipulation.display.managed;
 
 import com.projectkorra.projectkorra.ability.Ability;
 import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.ItemDisplay.ItemDisplayTransform;
 import org.bukkit.inventory.ItemStack;
@@ -14,8 +15,12 @@ public class ManagedItemDisplay extends ManagedDisplay {
         super(entityUUID, owner, displayManager);
     }
 
+    public ManagedItemDisplay(ItemDisplay entity, Ability owner, DisplayManager displayManager) {
+        super(entity, owner, displayManager);
+    }
+
     public ItemDisplay getBukkitEntity() {
-        return displayManager.getValidBukkitEntity(entityUUID, ItemDisplay.class);
+        return getEntity(ItemDisplay.class);
     }
 
     public void setItemStack(ItemStack itemStack) {
@@ -45,4 +50,42 @@ public class ManagedItemDisplay extends ManagedDisplay {
         ItemDisplay entity = getBukkitEntity();
         return (entity != null) ? entity.getItemDisplayTransform() : null;
     }
+
+    @Override
+    public ItemUpdate beginUpdate() {
+        return new ItemUpdate(this);
+    }
+
+    /**
+     * Property changes for a item display, see {@link ManagedDisplay#beginUpdate()}.
+     */
+    public static class ItemUpdate extends Update {
+
+        private ItemStack itemStack;
+        private ItemDisplayTransform itemDisplayTransform;
+
+        protected ItemUpdate(ManagedItemDisplay display) {
+            super(display);
+        }
+
+        public void setItemStack(ItemStack itemStack) {
+            this.itemStack = itemStack;
+        }
+
+        public void setItemDisplayTransform(ItemDisplayTransform itemDisplayTransform) {
+            this.itemDisplayTransform = itemDisplayTransform;
+        }
+
+        @Override
+        protected void applyTo(Display entity) {
+            super.applyTo(entity);
+            ItemDisplay itemDisplay = (ItemDisplay) entity;
+            if (itemStack != null) {
+                itemDisplay.setItemStack(itemStack);
+            }
+            if (itemDisplayTransform != null) {
+                itemDisplay.setItemDisplayTransform(itemDisplayTransform);
+            }
+        }
+    }
 }
\ No newline at end of file
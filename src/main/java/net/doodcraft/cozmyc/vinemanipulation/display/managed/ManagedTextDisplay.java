@@ -3,6 +3,7 @@ package net.doodcraft.cozmyc.vinemanipulation.display.managed;
 import com.projectkorra.projectkorra.ability.Ability;
 import net.doodcraft.cozmyc.vinemanipulation.display.DisplayManager;
 import org.bukkit.Color;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.entity.TextDisplay.TextAlignment;
 
@@ -14,9 +15,13 @@ public class ManagedTextDisplay extends ManagedDisplay {
         super(entityUUID, owner, displayManager);
     }
 
+    public ManagedTextDisplay(TextDisplay entity, Ability owner, DisplayManager displayManager) {
+        super(entity, owner, displayManager);
+    }
+
     /** Gets the underlying Bukkit TextDisplay entity, if valid. */
     public TextDisplay getBukkitEntity() {
-        return displayManager.getValidBukkitEntity(entityUUID, TextDisplay.class);
+        return getEntity(TextDisplay.class);
     }
 
     public void setText(String text) {
@@ -64,4 +69,72 @@ public class ManagedTextDisplay extends ManagedDisplay {
             entity.setTextOpacity(opacity);
         }
     }
-}
+
+    @Override
+    public TextUpdate beginUpdate() {
+        return new TextUpdate(this);
+    }
+
+    /**
+     * Property changes for a text display, see {@link ManagedDisplay#beginUpdate()}.
+     */
+    public static class TextUpdate extends Update {
+
+        private static final int LINE_WIDTH = 1;
+        private static final int TEXT_OPACITY = 1 << 1;
+
+        private String text;
+        private int lineWidth;
+        private TextAlignment alignment;
+        private Color backgroundColor;
+        private byte textOpacity;
+        private int changed;
+
+        protected TextUpdate(ManagedTextDisplay display) {
+            super(display);
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public void setLineWidth(int lineWidth) {
+            this.lineWidth = lineWidth;
+            this.changed |= LINE_WIDTH;
+        }
+
+        public void setAlignment(TextAlignment alignment) {
+            this.alignment = alignment;
+        }
+
+        public void setBackgroundColor(Color backgroundColor) {
+            this.backgroundColor = backgroundColor;
+        }
+
+        public void setTextOpacity(byte textOpacity) {
+            this.textOpacity = textOpacity;
+            this.changed |= TEXT_OPACITY;
+        }
+
+        @Override
+        protected void applyTo(Display entity) {
+            super.applyTo(entity);
+            TextDisplay textDisplay = (TextDisplay) entity;
+            if (text != null) {
+                textDisplay.setText(text);
+            }
+            if ((changed & LINE_WIDTH) != 0) {
+                textDisplay.setLineWidth(lineWidth);
+            }
+            if (alignment != null) {
+                textDisplay.setAlignment(alignment);
+            }
+            if (backgroundColor != null) {
+                textDisplay.setBackgroundColor(backgroundColor);
+            }
+            if ((changed & TEXT_OPACITY) != 0) {
+                textDisplay.setTextOpacity(textOpacity);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package net.doodcraft.cozmyc.vinemanipulation.display.animation.util;
+
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Compares the scalar FabrikSolver with the VectorFabrikSolver on the same packed batch, at
+ * the segment counts a vine actually runs with: 3 (MinSegments), 26 and 104 (MaxSegments).
+ * Every chain gets the full iteration budget from the same sagging start, so both solvers do
+ * the same work and their results must match. Each count is run without a joint cone, with
+ * the default 135 degree MaxAngleConstraint, and with a tight 45 degree cone that clamps often.
+ * <p>
+ * Run with {@code mvn -Pbench test}, or directly with
+ * {@code java --add-modules jdk.incubator.vector -cp <test classes>:<classes>:<spigot-api> }
+ * followed by this class's name. Optional arguments: chain count, then milliseconds per measurement.
+ */
+public final class FabrikSolverBenchmark {
+
+    private static final int[] SEGMENT_COUNTS = {3, 26, 104};
+    private static final double[] MAX_ANGLES = {180, 135, 45};
+    private static final double SEGMENT_LENGTH = 0.25;
+    private static final int ITERATIONS = 15;
+    private static final double TOLERANCE = 0.01;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private final int chainCount;
+    private final int segmentCount;
+    private final double maxAngle;
+    private final int lanes = VectorFabrikSolver.lanes();
+
+    private final FabrikChain[] chains;
+    private final FabrikSolver scalarSolver = new FabrikSolver(ITERATIONS, TOLERANCE);
+    private final VectorFabrikSolver vectorSolver = new VectorFabrikSolver();
+
+    private final double[] startJoints;
+    private final double[] scalarJoints;
+    private final double[] vectorJoints;
+    private final double[] lengths;
+    private final double[] snapshots;
+    private final int[] jointOffsets;
+    private final int[] lengthOffsets;
+    private final int[] budgets;
+    private final int[] order;
+    private final SolveResult[] results;
+
+    private FabrikSolverBenchmark(int chainCount, int segmentCount, double maxAngle) {
+        this.chainCount = chainCount;
+        this.segmentCount = segmentCount;
+        this.maxAngle = maxAngle;
+        this.scalarSolver.setMaxAngle(maxAngle);
+
+        int components = (segmentCount + 1) * 3;
+        this.chains = new FabrikChain[chainCount];
+        this.startJoints = new double[chainCount * components];
+        this.lengths = new double[chainCount * segmentCount];
+        this.snapshots = new double[chainCount * 7];
+        this.jointOffsets = new int[chainCount];
+        this.lengthOffsets = new int[chainCount];
+        this.budgets = new int[chainCount];
+        this.order = new int[chainCount];
+        this.results = new SolveResult[chainCount];
+
+        Random random = new Random(1);
+        double reach = segmentCount * SEGMENT_LENGTH * 0.8;
+        for (int c = 0; c < chainCount; c++) {
+            chains[c] = new FabrikChain(new Location(null, 0, 0, 0), new Vector(0, 1, 0),
+                    Collections.nCopies(segmentCount, SEGMENT_LENGTH), ITERATIONS, TOLERANCE);
+            chains[c].setMaxAngle(maxAngle);
+            jointOffsets[c] = c * components;
+            lengthOffsets[c] = c * segmentCount;
+            budgets[c] = ITERATIONS;
+            order[c] = c;
+            results[c] = new SolveResult();
+            Arrays.fill(lengths, lengthOffsets[c], lengthOffsets[c] + segmentCount, SEGMENT_LENGTH);
+
+            // a sagging start, roughly what the previous tick leaves behind
+            for (int j = 0; j <= segmentCount; j++) {
+                int joint = jointOffsets[c] + j * 3;
+                startJoints[joint] = j * 0.2;
+                startJoints[joint + 1] = -Math.sin(Math.PI * j / segmentCount) * 0.3 * segmentCount * SEGMENT_LENGTH;
+                startJoints[joint + 2] = random.nextDouble() * 0.1;
+            }
+
+            int s = c * 7;
+            snapshots[s + 3] = reach * 0.7;
+            snapshots[s + 4] = -reach * 0.5 + random.nextDouble() * 0.2;
+            snapshots[s + 5] = reach * 0.3;
+        }
+
+        this.scalarJoints = startJoints.clone();
+        this.vectorJoints = startJoints.clone();
+    }
+
+    public static void main(String[] args) {
+        if (!FabrikBatchSolver.isVectorApiAvailable()) {
+            System.out.println("Start the JVM with --add-modules jdk.incubator.vector to compare against the vectorized solver.");
+            return;
+        }
+
+        int chainCount = args.length > 0 ? Integer.parseInt(args[0]) : 48;
+        long measureMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        System.out.printf("%d chains per batch, %d double lanes, %d iterations, %s%n",
+                chainCount, VectorFabrikSolver.lanes(), ITERATIONS, System.getProperty("java.vm.version"));
+        System.out.printf("%8s %6s %12s %12s %8s %10s%n", "segments", "cone", "scalar us", "vector us", "speedup", "max diff");
+
+        for (int segmentCount : SEGMENT_COUNTS) {
+            for (double maxAngle : MAX_ANGLES) {
+                new FabrikSolverBenchmark(chainCount, segmentCount, maxAngle).run(measureMillis);
+            }
+        }
+    }
+
+    private void run(long measureMillis) {
+        scalarBatch();
+        vectorBatch();
+        double maxDifference = 0;
+        for (int i = 0; i < startJoints.length; i++) {
+            maxDifference = Math.max(maxDifference, Math.abs(scalarJoints[i] - vectorJoints[i]));
+        }
+
+        double scalarNanos = 0;
+        double vectorNanos = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            // the last round is the one reported, the others let the JIT settle
+            scalarNanos = measure(this::scalarBatch, measureMillis);
+            vectorNanos = measure(this::vectorBatch, measureMillis);
+        }
+
+        System.out.printf("%8d %6s %12.1f %12.1f %7.2fx %10.1e%n",
+                segmentCount, maxAngle < 180 ? (int) maxAngle + "deg" : "off", scalarNanos / 1e3, vectorNanos / 1e3, scalarNanos / vectorNanos, maxDifference);
+    }
+
+    /**
+     * Gets the mean time of one batch in nanoseconds, running batches for about the given time.
+     */
+    private static double measure(Runnable batch, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long start = System.nanoTime();
+        long batches = 0;
+        do {
+            for (int i = 0; i < 16; i++) {
+                batch.run();
+            }
+            batches += 16;
+        } while (System.nanoTime() < deadline);
+        return (double) (System.nanoTime() - start) / batches;
+    }
+
+    private void scalarBatch() {
+        System.arraycopy(startJoints, 0, scalarJoints, 0, startJoints.length);
+        for (int c = 0; c < chainCount; c++) {
+            int s = c * 7;
+            scalarSolver.iterate(scalarJoints, jointOffsets[c], lengths, lengthOffsets[c], segmentCount,
+                    snapshots[s], snapshots[s + 1], snapshots[s + 2],
+                    snapshots[s + 3], snapshots[s + 4], snapshots[s + 5],
+                    ITERATIONS, results[c]);
+        }
+    }
+
+    private void vectorBatch() {
+        System.arraycopy(startJoints, 0, vectorJoints, 0, startJoints.length);
+        for (int from = 0; from < chainCount; from += lanes) {
+            vectorSolver.solve(vectorJoints, jointOffsets, lengths, lengthOffsets, snapshots, budgets, results,
+                    chains, order, from, Math.min(lanes, chainCount - from), segmentCount);
+        }
+    }
+}